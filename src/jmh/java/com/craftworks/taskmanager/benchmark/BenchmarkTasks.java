@@ -0,0 +1,60 @@
+package com.craftworks.taskmanager.benchmark;
+
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of reproducible random tasks for the benchmarks.
+ */
+final class BenchmarkTasks {
+
+    private BenchmarkTasks() {
+    }
+
+    static List<Task> tasks(int size) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2023, 4, 1, 12, 0);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setCreatedAt(now.minusMinutes(random.nextInt(100_000)));
+            task.setUpdatedAt(now);
+            task.setDueDate(now.toLocalDate().plusDays(random.nextInt(10)));
+            task.setTitle("Task " + random.nextInt(100_000));
+            task.setDescription("Description " + random.nextInt(100_000));
+            task.setPriority(Priority.values()[random.nextInt(Priority.values().length)]);
+            task.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+            task.setVersion(0L);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    static List<CreateTaskDto> createTaskDtos(int size) {
+        Random random = new Random(42);
+        List<CreateTaskDto> taskDtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            taskDtos.add(createTaskDto(random));
+        }
+        return taskDtos;
+    }
+
+    static CreateTaskDto createTaskDto(Random random) {
+        CreateTaskDto taskDto = new CreateTaskDto();
+        taskDto.setDueDate(LocalDate.of(2023, 4, 1).plusDays(random.nextInt(10)));
+        taskDto.setTitle("Task " + random.nextInt(100_000));
+        taskDto.setDescription("Description " + random.nextInt(100_000));
+        taskDto.setPriority(Priority.values()[random.nextInt(Priority.values().length)]);
+        taskDto.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+        return taskDto;
+    }
+}
@@ -0,0 +1,55 @@
+package com.craftworks.taskmanager.benchmark;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.mapper.TaskMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of mapping Task entities to TaskDtos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class TaskMapperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private final TaskMapper taskMapper = TaskMapper.INSTANCE;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkTasks.tasks(size);
+    }
+
+    @Benchmark
+    public List<TaskDto> taskListToTaskDtoList() {
+        return taskMapper.taskListToTaskDtoList(tasks);
+    }
+
+    @Benchmark
+    public void taskToTaskDto(Blackhole blackhole) {
+        for (Task task : tasks) {
+            blackhole.consume(taskMapper.taskToTaskDto(task));
+        }
+    }
+}
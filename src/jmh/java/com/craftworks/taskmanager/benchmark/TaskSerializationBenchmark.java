@@ -0,0 +1,95 @@
+package com.craftworks.taskmanager.benchmark;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskFields;
+import com.craftworks.taskmanager.mapper.TaskMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of serializing lists of TaskDtos to JSON, CBOR and Smile, and to JSON with a sparse fieldset.
+ * <p>
+ *     The object mappers are configured like the ones Spring Boot uses for the REST API.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class TaskSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<TaskDto> taskDtos;
+    private ObjectWriter writer;
+    private ObjectWriter sparseWriter;
+    private ObjectWriter cborWriter;
+    private ObjectWriter smileWriter;
+
+    @Setup
+    public void setUp() {
+        taskDtos = TaskMapper.INSTANCE.taskListToTaskDtoList(BenchmarkTasks.tasks(size));
+        JsonMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(TaskDto.class, TaskFields.Mixin.class)
+                .filterProvider(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        CBORMapper cborMapper = CBORMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        SmileMapper smileMapper = SmileMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        var listType = TypeFactory.defaultInstance().constructCollectionType(List.class, TaskDto.class);
+        writer = objectMapper.writerFor(listType);
+        sparseWriter = objectMapper.writerFor(listType).with(TaskFields.filter("id,title,status"));
+        cborWriter = cborMapper.writerFor(listType);
+        smileWriter = smileMapper.writerFor(listType);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(taskDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListWithSparseFields() throws JsonProcessingException {
+        return sparseWriter.writeValueAsBytes(taskDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListToCbor() throws JsonProcessingException {
+        return cborWriter.writeValueAsBytes(taskDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListToSmile() throws JsonProcessingException {
+        return smileWriter.writeValueAsBytes(taskDtos);
+    }
+}
@@ -0,0 +1,75 @@
+package com.craftworks.taskmanager.benchmark;
+
+import com.craftworks.taskmanager.TaskmanagerApplication;
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.service.TaskBatchService;
+import com.craftworks.taskmanager.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of the task service against an in-memory H2 database.
+ * <p>
+ *     The application context is started with the {@code benchmark} profile, which replaces PostgreSQL with H2,
+ *     so the benchmark runs on a dev box without a database server.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskmanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run();
+        taskService = context.getBean(TaskService.class);
+        context.getBean(TaskBatchService.class).createTasks(BenchmarkTasks.createTaskDtos(size));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDto> getAllTasks() {
+        return taskService.getAllTasks();
+    }
+
+    @Benchmark
+    public TaskDto createTask() {
+        CreateTaskDto taskDto = BenchmarkTasks.createTaskDto(random);
+        return taskService.createTask(taskDto);
+    }
+}
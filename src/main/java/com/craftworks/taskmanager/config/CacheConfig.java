@@ -0,0 +1,38 @@
+package com.craftworks.taskmanager.config;
+
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration of the in-process task cache.
+ * <p>
+ *     The caching advice runs outside of the transaction advice, so a cache hit does not open a transaction
+ *     and does not borrow a connection from the pool.
+ *     Puts and evictions issued inside a transaction are deferred until the transaction has committed,
+ *     so the cache never holds data which has been rolled back.
+ * </p>
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding TaskDtos by task id.
+     */
+    public static final String TASKS = "tasks";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${taskmanager.cache.tasks.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(TASKS);
+        cacheManager.setCaffeineSpec(CaffeineSpec.parse(spec));
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
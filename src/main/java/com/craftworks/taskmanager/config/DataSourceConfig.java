@@ -0,0 +1,37 @@
+package com.craftworks.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuration of the JDBC data source.
+ * <p>
+ *     Spring Boot does not create a JDBC data source once an R2DBC connection factory is configured for the reactive API,
+ *     so the Hikari pool used by JPA, the JDBC templates and Flyway is declared here, bound to {@code spring.datasource.*}
+ *     and {@code spring.datasource.hikari.*} like the pool Spring Boot creates.
+ *     If read replicas are configured, {@link ReplicaDataSourceConfig} provides the data source instead.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    @ConditionalOnExpression("'${taskmanager.datasource.replica-urls:}'.isBlank()")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        if (StringUtils.hasText(properties.getName())) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,65 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.ratelimit.GradientConcurrencyLimit;
+import com.craftworks.taskmanager.ratelimit.TaskLoadSheddingFilter;
+import com.craftworks.taskmanager.ratelimit.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the rate limits and the load shedding of the task API.
+ * <p>
+ *     The filter runs after the observation filter, so rejected requests still show up in {@code http.server.requests}.
+ *     The token buckets of the clients are kept in a bounded cache and dropped when a client has been idle,
+ *     so the number of clients does not grow the heap without bound.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskmanager.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<TaskLoadSheddingFilter> taskLoadSheddingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${taskmanager.rate-limit.global.rate:2000}") double globalRate,
+            @Value("${taskmanager.rate-limit.global.burst:4000}") long globalBurst,
+            @Value("${taskmanager.rate-limit.client.rate:200}") double clientRate,
+            @Value("${taskmanager.rate-limit.client.burst:400}") long clientBurst,
+            @Value("${taskmanager.rate-limit.client.header:}") String clientHeader,
+            @Value("${taskmanager.rate-limit.client.max-clients:100000}") long maxClients,
+            @Value("${taskmanager.rate-limit.client.idle-timeout:5m}") Duration clientIdleTimeout,
+            @Value("${taskmanager.load-shedding.initial-limit:20}") int initialLimit,
+            @Value("${taskmanager.load-shedding.min-limit:4}") int minLimit,
+            @Value("${taskmanager.load-shedding.max-limit:200}") int maxLimit,
+            @Value("${taskmanager.load-shedding.tolerance:2.0}") double tolerance,
+            @Value("${taskmanager.load-shedding.window:600}") int window,
+            @Value("${taskmanager.load-shedding.retry-after:1s}") Duration shedRetryAfter) {
+        // Validate the client bucket settings at startup instead of on the first request
+        new TokenBucket(clientBurst, clientRate);
+        Cache<String, TokenBucket> clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(clientIdleTimeout)
+                .build();
+        TaskLoadSheddingFilter filter = new TaskLoadSheddingFilter(
+                new TokenBucket(globalBurst, globalRate),
+                clientBuckets,
+                () -> new TokenBucket(clientBurst, clientRate),
+                new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, window),
+                clientHeader.trim(),
+                shedRetryAfter,
+                meterRegistry);
+        FilterRegistrationBean<TaskLoadSheddingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/tasks", "/api/v1/tasks/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the read replicas.
+ * <p>
+ *     If replica URLs are configured, read-only transactions are routed to the replicas and all other statements to the primary
+ *     configured by {@code spring.datasource.*}. The replicas use the credentials and the pool settings of the primary,
+ *     i.e. all {@code spring.datasource.hikari.*} properties of the performance profile.
+ *     Reads of single tasks are served from the task cache, which is updated by every write and filled from the primary only,
+ *     so clients read their own writes of single tasks even if the replicas lag behind. Lists and searches may lag behind.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskmanager.datasource.replica-urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties,
+                                               MeterRegistry meterRegistry,
+                                               Environment environment,
+                                               @Value("${taskmanager.datasource.replica-urls}") List<String> replicaUrls,
+                                               @Value("${taskmanager.datasource.replica-fallback-to-primary:true}") boolean fallbackToPrimary,
+                                               @Value("${taskmanager.datasource.replica-lag-query:}") String lagQuery,
+                                               @Value("${taskmanager.datasource.replica-max-lag:5s}") Duration maxLag,
+                                               @Value("${taskmanager.datasource.replica-health-check-interval:5s}") Duration healthCheckInterval) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary", meterRegistry);
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int index = 0; index < replicaUrls.size(); index++) {
+            replicas.add(pool(properties, environment, replicaUrls.get(index).trim(), "replica-" + index, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, fallbackToPrimary, lagQuery, maxLag, healthCheckInterval);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url, String name,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        // Same binding as for the pool Spring Boot creates without replicas
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
@@ -0,0 +1,24 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.repository.TaskRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * Configuration of the repositories.
+ * <p>
+ *     JPA and R2DBC repositories live in the same package. Reactive repositories are only created by R2DBC,
+ *     all others only by JPA, so neither store picks up the repositories of the other.
+ * </p>
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = TaskRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+@EnableR2dbcRepositories(basePackageClasses = TaskRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoryConfig {
+}
@@ -0,0 +1,58 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.PatchTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskEventDto;
+import com.craftworks.taskmanager.entity.ArchivedTask;
+import com.craftworks.taskmanager.entity.IdempotencyKey;
+import com.craftworks.taskmanager.entity.Lease;
+import com.craftworks.taskmanager.entity.OutboxEvent;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.entity.TaskRow;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Hints for the reflection which Spring AOT cannot infer, so the application also runs as GraalVM native image.
+ * <p>
+ *     The hints are only read while the application is processed ahead of time and have no effect on the JVM.
+ * </p>
+ */
+@Configuration
+@ImportRuntimeHints(RuntimeHintsConfig.TaskRuntimeHints.class)
+public class RuntimeHintsConfig {
+
+    static class TaskRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // TaskMapper.INSTANCE loads the generated implementation by name and instantiates it reflectively
+            hints.reflection().registerType(TypeReference.of("com.craftworks.taskmanager.mapper.TaskMapperImpl"),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            // Entities are read and written by Hibernate through their fields, and task rows by Spring Data R2DBC
+            for (Class<?> entity : new Class<?>[]{Task.class, TaskRow.class, ArchivedTask.class, OutboxEvent.class, IdempotencyKey.class, Lease.class}) {
+                hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            // The preview API of virtual threads is called reflectively by VirtualThreadConfig
+            hints.reflection().registerType(Executors.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(Thread.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(TypeReference.of("java.lang.Thread$Builder"), MemberCategory.INVOKE_PUBLIC_METHODS);
+            // TaskDtos are constructed by the projection queries, and written to the outbox, the change feed
+            // and the idempotency store with the object mapper outside of the request mapping
+            hints.reflection().registerType(TaskDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            bindingHints.registerReflectionHints(hints.reflection(),
+                    TaskDto.class, CreateTaskDto.class, PatchTaskDto.class, TaskEventDto.class);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.craftworks.taskmanager.config;
+
+/**
+ * Configuration of the full-text search over task titles and descriptions.
+ * <p>
+ *     Hibernate can neither create generated columns nor GIN indexes, so the search column and its index are added
+ *     to the tasks table by the migration {@code V2__task_search.sql}. PostgreSQL maintains the column on every insert and update.
+ *     Titles weigh more than descriptions in the ranking of the search results.
+ *     Other databases, like the H2 database of the benchmarks, do not support the search.
+ * </p>
+ */
+public final class SearchConfig {
+
+    /**
+     * Text search configuration of the search column, queries have to use the same one.
+     */
+    public static final String TEXT_SEARCH_CONFIGURATION = "english";
+
+    private SearchConfig() {
+    }
+}
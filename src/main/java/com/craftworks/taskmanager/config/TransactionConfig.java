@@ -0,0 +1,24 @@
+package com.craftworks.taskmanager.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Configuration of the transaction managers.
+ * <p>
+ *     JPA and R2DBC both provide a transaction manager. The JPA one is declared as primary,
+ *     so {@code @Transactional} keeps using JPA, while the reactive API uses the R2DBC one explicitly.
+ * </p>
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,112 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.jdbc.BoundedDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Configuration of the virtual thread mode.
+ * <p>
+ *     If {@code taskmanager.virtual-threads.enabled} is set, Tomcat handles every request on its own virtual thread,
+ *     and scheduled and asynchronous work runs on virtual threads as well.
+ *     Since a blocked virtual thread no longer occupies a platform thread, the number of concurrent requests is no longer
+ *     bounded by the Tomcat thread pool. The connection pool becomes the bottleneck instead, so access to it is bounded by a
+ *     {@link BoundedDataSource} and excess callers wait in a fair queue.
+ * </p>
+ * <p>
+ *     Virtual threads are a preview API of Java 19. It is only called reflectively from this configuration,
+ *     so the application is compiled without preview features and runs on any later Java version,
+ *     and only has to be started with {@code --enable-preview} on Java 19 and 20 when virtual threads are enabled.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskmanager.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${taskmanager.virtual-threads.scheduler-pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadFactory(virtualThreadFactory("scheduling-"));
+        return taskScheduler;
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${taskmanager.virtual-threads.jdbc-permits:10}") int jdbcPermits,
+            @Value("${taskmanager.virtual-threads.jdbc-acquire-timeout:30000}") long jdbcAcquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the data source used by JPA and the JdbcTemplate is bounded, the pools behind it share its permits
+                if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    logger.info("Bounding concurrent JDBC access of {} to {} connections", beanName, jdbcPermits);
+                    return new BoundedDataSource(dataSource, jdbcPermits, jdbcAcquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @return {@code Executors.newVirtualThreadPerTaskExecutor()}
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw unsupported(ex);
+        }
+    }
+
+    /**
+     * @return {@code Thread.ofVirtual().name(prefix, 0).factory()}
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw unsupported(ex);
+        }
+    }
+
+    private static IllegalStateException unsupported(ReflectiveOperationException ex) {
+        Throwable cause = ex instanceof InvocationTargetException invocation ? invocation.getCause() : ex;
+        return new IllegalStateException("Virtual threads require Java 19 started with --enable-preview, or a later Java version", cause);
+    }
+}
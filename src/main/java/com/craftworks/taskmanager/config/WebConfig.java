@@ -0,0 +1,45 @@
+package com.craftworks.taskmanager.config;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration of the representations of the REST API.
+ * <p>
+ *     Besides JSON, responses are available as CBOR ({@code Accept: application/cbor})
+ *     and Smile ({@code Accept: application/x-jackson-smile}), which are smaller and cheaper to write.
+ *     All formats are written by object mappers configured like the JSON one, so they carry the same fields.
+ * </p>
+ */
+@Configuration
+public class WebConfig {
+
+    /**
+     * Attach the sparse fieldset filter to TaskDtos. Without a filter for a response, all fields are serialized.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer taskFieldsCustomizer() {
+        return builder -> builder
+                .mixIn(TaskDto.class, TaskFields.Mixin.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,132 @@
+package com.craftworks.taskmanager.controller;
+
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.service.ReactiveTaskService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive controller class for Taskmanagement System
+ * <p>
+ *     This class is responsible for handling CRUD requests of the reactive API and delegating the request to the reactive service layer.
+ *     Results are returned as Flux and Mono, so the request thread is released while the database is working
+ *     and lists are streamed to the client with backpressure.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/v2/tasks")
+public class ReactiveTaskController {
+    private final Logger logger = LoggerFactory.getLogger(ReactiveTaskController.class);
+    private final ReactiveTaskService reactiveTaskService;
+
+    public ReactiveTaskController(ReactiveTaskService reactiveTaskService) {
+        this.reactiveTaskService = reactiveTaskService;
+    }
+
+    /**
+     * Get all tasks
+     * <p>
+     *     This method is responsible for handling GET request to get all tasks.
+     *     With {@code Accept: application/x-ndjson} the tasks are streamed one per line as they are read,
+     *     otherwise they are returned as JSON array.
+     * </p>
+     * @return Stream of all tasks
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<TaskDto> getAllTasks() {
+        logger.info("Received request to get all tasks");
+        return reactiveTaskService.getAllTasks();
+    }
+
+    /**
+     * Get task by id
+     * <p>
+     *     This method is responsible for handling GET request to get a task by id.
+     *     If no task is found, it returns a not found response to the client.
+     * </p>
+     * @param taskId Id of the task to be retrieved
+     * @return       Task with the given id
+     */
+    @GetMapping("/{taskId}")
+    public Mono<ResponseEntity<TaskDto>> getTask(@PathVariable @NotNull Long taskId) {
+        logger.info("Received request to get Task with id: {}", taskId);
+        return reactiveTaskService.getTaskById(taskId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Create a task
+     * <p>
+     *     This method is responsible for handling POST request to create a task.
+     *     It returns the created task and its location in the response header.
+     *     Invalid tasks are rejected with a bad request response.
+     * </p>
+     * @param taskDto    Task to be created
+     * @param uriBuilder UriBuilder to build the location of the task
+     * @return           Created task
+     */
+    @PostMapping
+    public Mono<ResponseEntity<TaskDto>> createTask(@RequestBody @Valid CreateTaskDto taskDto,
+                                                    UriComponentsBuilder uriBuilder) {
+        logger.info("Received request to create Task: {}", taskDto);
+        return reactiveTaskService.createTask(taskDto)
+                .map(createdTaskDto -> ResponseEntity
+                        .created(uriBuilder.path("/api/v2/tasks/{taskId}").buildAndExpand(createdTaskDto.getId()).toUri())
+                        .body(createdTaskDto));
+    }
+
+    /**
+     * Update a task
+     * <p>
+     *     This method is responsible for handling PUT request to update a task.
+     *     If no task is found, it returns a not found response to the client.
+     *     If the task is modified concurrently, it returns a conflict response to the client.
+     *     Invalid tasks are rejected with a bad request response.
+     * </p>
+     * @param taskId  Id of the task to be updated
+     * @param taskDto Task to be updated
+     * @return        Updated task
+     */
+    @PutMapping("/{taskId}")
+    public Mono<ResponseEntity<TaskDto>> updateTask(@PathVariable @NotNull Long taskId,
+                                                    @RequestBody @Valid TaskDto taskDto) {
+        logger.info("Received request to update Task with id: {}", taskId);
+        return reactiveTaskService.updateTask(taskId, taskDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(OptimisticLockingFailureException.class, ex -> {
+                    logger.error("Task with id: {} has been modified concurrently", taskId);
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                });
+    }
+
+    /**
+     * Delete a task
+     * <p>
+     *     This method is responsible for handling DELETE request to delete a task.
+     *     If no task is found, it returns a not found response to the client.
+     * </p>
+     * @param taskId Id of the task to be deleted
+     * @return       Empty response
+     */
+    @DeleteMapping("/{taskId}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable @NotNull Long taskId) {
+        logger.info("Received request to delete Task with id: {}", taskId);
+        return reactiveTaskService.deleteTask(taskId)
+                .map(deleted -> deleted
+                        ? ResponseEntity.ok().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+}
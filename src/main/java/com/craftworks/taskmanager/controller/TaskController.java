@@ -1,21 +1,49 @@
 package com.craftworks.taskmanager.controller;
 
+import com.craftworks.taskmanager.dto.BatchResultDto;
+import com.craftworks.taskmanager.dto.CacheStatsDto;
 import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.PatchTaskDto;
+import com.craftworks.taskmanager.dto.StatusUpdateDto;
+import com.craftworks.taskmanager.dto.TaskCursor;
 import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskFields;
+import com.craftworks.taskmanager.dto.TaskFilterDto;
+import com.craftworks.taskmanager.dto.TaskStatsDto;
 import com.craftworks.taskmanager.exception.TaskAccessException;
+import com.craftworks.taskmanager.exception.TaskConflictException;
 import com.craftworks.taskmanager.exception.TaskNotFoundException;
+import com.craftworks.taskmanager.service.IdempotencyService;
+import com.craftworks.taskmanager.service.TaskBatchService;
+import com.craftworks.taskmanager.service.TaskEventFeed;
 import com.craftworks.taskmanager.service.TaskService;
+import com.craftworks.taskmanager.service.TaskStatusBuffer;
+import com.craftworks.taskmanager.service.TaskStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -29,10 +57,35 @@ import java.util.List;
 @RequestMapping("/api/v1/tasks")
 public class TaskController {
     private final Logger logger = LoggerFactory.getLogger(TaskController.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final TaskService taskService;
+    private final TaskBatchService taskBatchService;
+    private final TaskStatsService taskStatsService;
+    private final TaskEventFeed taskEventFeed;
+    private final IdempotencyService idempotencyService;
+    private final TaskStatusBuffer taskStatusBuffer;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService,
+                          TaskBatchService taskBatchService,
+                          TaskStatsService taskStatsService,
+                          TaskEventFeed taskEventFeed,
+                          IdempotencyService idempotencyService,
+                          TaskStatusBuffer taskStatusBuffer,
+                          ObjectMapper objectMapper,
+                          @Value("${taskmanager.batch.max-size:50000}") int maxBatchSize) {
         this.taskService = taskService;
+        this.taskBatchService = taskBatchService;
+        this.taskStatsService = taskStatsService;
+        this.taskEventFeed = taskEventFeed;
+        this.idempotencyService = idempotencyService;
+        this.taskStatusBuffer = taskStatusBuffer;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -43,22 +96,202 @@ public class TaskController {
      *     If any error occurs while getting the tasks, it returns an error response to the client.
      *     If no tasks are found, it returns an empty list.
      *     If tasks are found, it returns a list of tasks.
+     *     If a filter, a sort order, a cursor or a limit is given, it returns only one page of matching tasks
+     *     sorted by the sort field and id.
+     *     The page links to the next page in the Link response header as long as more tasks may follow.
+     *     If fields are given, only these fields of the tasks are returned.
+     *     It returns a bad request response to the client in case of an invalid filter, cursor, limit or field.
      * </p>
-     * @return List of all tasks
+     * @param filter Filter and sort order of the tasks
+     * @param after  Cursor of the last task of the previous page in the form {@code <value>,<id>}
+     * @param limit  Maximum number of tasks in the page, at most {@value #MAX_PAGE_SIZE}
+     * @param fields Comma separated names of the fields to be returned, all fields if null
+     * @return       List of all tasks or one page of tasks
      */
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getAllTasks() {
+    public ResponseEntity<MappingJacksonValue> getAllTasks(TaskFilterDto filter,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) String fields) {
         logger.info("Received request to get all tasks");
         try {
-            List<TaskDto> taskDtos = taskService.getAllTasks();
-            logger.info("Returning all tasks");
-            return ResponseEntity.ok(taskDtos);
+            FilterProvider fieldFilter = fields == null ? null : TaskFields.filter(fields);
+            if (after == null && limit == null && filter.isDefault()) {
+                List<TaskDto> taskDtos = taskService.getAllTasks();
+                logger.info("Returning all tasks");
+                return ResponseEntity.ok(withFields(taskDtos, fieldFilter));
+            }
+
+            int pageSize = limit == null ? MAX_PAGE_SIZE : limit;
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                logger.error("Invalid page size: {}", limit);
+                return ResponseEntity.badRequest().build();
+            }
+            TaskCursor cursor = after == null ? null : TaskCursor.parse(after);
+            List<TaskDto> taskDtos = taskService.getTaskPage(filter, cursor, pageSize);
+            logger.info("Returning page of {} tasks", taskDtos.size());
+            if (taskDtos.size() < pageSize) {
+                return ResponseEntity.ok(withFields(taskDtos, fieldFilter));
+            }
+            String next = TaskCursor.of(taskDtos.get(taskDtos.size() - 1), filter.sortField()).toString();
+            URI nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", UriUtils.encodeQueryParam(next, StandardCharsets.UTF_8))
+                    .replaceQueryParam("limit", pageSize)
+                    .build(true)
+                    .toUri();
+            return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"").body(withFields(taskDtos, fieldFilter));
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid task query: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (TaskAccessException ex) {
             logger.error("Error occurred while getting all tasks: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Stream all tasks
+     * <p>
+     *     This method is responsible for handling GET request to stream all tasks as newline delimited JSON.
+     *     Every task is written to the response as soon as it has been read and mapped,
+     *     so the memory used by the request does not depend on the number of tasks.
+     *     The same filter, sort and fields parameters as for listing tasks are supported.
+     * </p>
+     * @param filter Filter and sort order of the tasks
+     * @param fields Comma separated names of the fields to be returned, all fields if null
+     * @return       Stream of all matching tasks, one JSON document per line
+     */
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks(TaskFilterDto filter,
+                                                                @RequestParam(required = false) String fields) {
+        logger.info("Received request to stream all tasks");
+        // Validate the parameters before the response is committed
+        ObjectWriter writer = objectMapper.writerFor(TaskDto.class);
+        try {
+            filter.sortField();
+            filter.sortDirection();
+            if (fields != null) {
+                writer = writer.with(TaskFields.filter(fields));
+            }
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid task query: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        ObjectWriter taskWriter = writer;
+        StreamingResponseBody body = outputStream -> {
+            try {
+                taskService.streamAllTasks(filter, taskDto -> {
+                    try {
+                        outputStream.write(taskWriter.writeValueAsBytes(taskDto));
+                        outputStream.write('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                logger.error("Client aborted streaming all tasks: {}", ex.getMessage());
+                throw ex.getCause();
+            }
+            logger.info("Streamed all tasks");
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Search tasks
+     * <p>
+     *     This method is responsible for handling GET request to search tasks by their title and description.
+     *     The query is given in web search syntax, e.g. {@code "fix bug" -urgent}.
+     *     It returns one page of matching tasks, most relevant first, and links to the next page in the Link response header
+     *     as long as more tasks may follow.
+     *     If fields are given, only these fields of the tasks are returned.
+     *     It returns a bad request response to the client in case of an empty query, an invalid offset, limit or field.
+     * </p>
+     * @param q      Search query
+     * @param offset Number of ranked tasks to skip
+     * @param limit  Maximum number of tasks in the page, at most {@value #MAX_SEARCH_PAGE_SIZE}
+     * @param fields Comma separated names of the fields to be returned, all fields if null
+     * @return       Page of matching tasks
+     */
+    @GetMapping("/search")
+    public ResponseEntity<MappingJacksonValue> searchTasks(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int offset,
+                                                           @RequestParam(defaultValue = "20") int limit,
+                                                           @RequestParam(required = false) String fields) {
+        logger.info("Received request to search tasks: {}", q);
+        if (q.isBlank() || offset < 0 || limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            logger.error("Invalid search query: {}, offset: {}, limit: {}", q, offset, limit);
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            FilterProvider fieldFilter = fields == null ? null : TaskFields.filter(fields);
+            List<TaskDto> taskDtos = taskService.searchTasks(q, offset, limit);
+            logger.info("Returning {} tasks for search", taskDtos.size());
+            if (taskDtos.size() < limit) {
+                return ResponseEntity.ok(withFields(taskDtos, fieldFilter));
+            }
+            URI nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("offset", offset + limit)
+                    .replaceQueryParam("limit", limit)
+                    .build(true)
+                    .toUri();
+            return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"").body(withFields(taskDtos, fieldFilter));
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid search query: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (TaskAccessException ex) {
+            logger.error("Error occurred while searching tasks: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Subscribe to task changes
+     * <p>
+     *     This method is responsible for handling GET request to subscribe to the changes of tasks as Server-Sent Events.
+     *     Every committed creation, update and deletion of a task is sent as an event with the type of the change,
+     *     the id of the task and the task after the change.
+     *     A client reconnecting with the Last-Event-ID request header gets the events it has missed,
+     *     or a reset event if it has to reload the tasks.
+     * </p>
+     * @param lastEventId Id of the last event the client has received, may be null
+     * @return            Stream of task changes
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Received request to subscribe to task changes");
+        return taskEventFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Get task statistics
+     * <p>
+     *     This method is responsible for handling GET request to get the number of tasks in total, per status, per priority
+     *     and of the overdue tasks. The counts are served from memory without reading the tasks.
+     * </p>
+     * @param byCreationDay Whether the number of tasks per creation day is included
+     * @return              Statistics of all tasks
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDto> getStats(@RequestParam(defaultValue = "false") boolean byCreationDay) {
+        logger.info("Received request to get task statistics");
+        return ResponseEntity.ok(taskStatsService.getStats(byCreationDay));
+    }
+
+    /**
+     * Get cache statistics
+     * <p>
+     *     This method is responsible for handling GET request to get the hit, miss and eviction counters
+     *     of the cache serving single tasks by id.
+     * </p>
+     * @return Statistics of the task cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDto> getCacheStats() {
+        logger.info("Received request to get cache statistics");
+        return ResponseEntity.ok(taskService.getCacheStats());
+    }
+
     /**
      * Get task by id
      * <p>
@@ -67,7 +300,8 @@ public class TaskController {
      *     If any error occurs while getting the task, it returns an error response to the client.
      *     If no task is found, it returns a not found response to the client.
      *     If task is found, it returns the task.
-     *     It also returns the location of the task in the response header.
+     *     It also returns the location and the version of the task as ETag in the response header.
+     *     If the task still has the version given in the If-None-Match request header, it returns a not modified response.
      * </p>
      *
      * @param taskId        Id of the task to be retrieved
@@ -82,7 +316,7 @@ public class TaskController {
             TaskDto taskDto = taskService.getTaskById(taskId);
             logger.info("Returning Task: {}", taskDto);
             URI location = uriBuilder.path("/task/{taskId}").buildAndExpand(taskDto.getId()).toUri();
-            return ResponseEntity.ok().location(location).body(taskDto);
+            return ResponseEntity.ok().location(location).eTag(eTag(taskDto)).body(taskDto);
         } catch (TaskNotFoundException ex) {
             return ResponseEntity.notFound().build();
         } catch (Exception ex) {
@@ -99,14 +333,20 @@ public class TaskController {
      *     If task is created successfully, it returns the created task.
      *     It also returns the location of the task in the response header.
      *     It handles validation errors and returns a bad request response to the client in case of a invalid task.
+     *     If an Idempotency-Key request header is given, the task is created only once for all requests with this key,
+     *     and every retry returns the task created by the first request.
+     *     If the key has been used for another task, it returns an unprocessable entity response,
+     *     and if the first request with the key is still running for too long, it returns a conflict response.
      * </p>
+     * @param idempotencyKey    Idempotency-Key of the request, may be null
      * @param taskDto           Task to be created
      * @param bindingResult     BindingResult to handle validation errors
      * @param uriBuilder        UriBuilder to build the location of the task
      * @return                  Created task
      */
     @PostMapping
-    public ResponseEntity<TaskDto> createTask(@RequestBody @Valid CreateTaskDto taskDto,
+    public ResponseEntity<TaskDto> createTask(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                              @RequestBody @Valid CreateTaskDto taskDto,
                                               BindingResult bindingResult,
                                               UriComponentsBuilder uriBuilder) {
         logger.info("Received request to create Task with id: {}", taskDto);
@@ -115,12 +355,20 @@ public class TaskController {
             logger.error("Validation errors occurred while updating task: {}", taskDto);
             return ResponseEntity.badRequest().build();
         }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            logger.error("Invalid Idempotency-Key: {}", idempotencyKey);
+            return ResponseEntity.badRequest().build();
+        }
 
         try {
-            TaskDto createdTaskDto = taskService.createTask(taskDto);
+            TaskDto createdTaskDto = idempotencyKey == null
+                    ? taskService.createTask(taskDto)
+                    : idempotencyService.createTask(idempotencyKey, taskDto);
             URI location = uriBuilder.path("/task/{taskId}").buildAndExpand(createdTaskDto.getId()).toUri();
             logger.info("Returning created Task: {}", createdTaskDto);
             return ResponseEntity.status(HttpStatus.CREATED).location(location).body(createdTaskDto);
+        } catch (TaskConflictException ex) {
+            return ResponseEntity.status(ex.getStatus()).build();
         } catch (Exception ex) {
             logger.error("An error occurred while creating task: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -134,11 +382,14 @@ public class TaskController {
      *     It delegates the request to the service layer and returns the response to the client.
      *     If any error occurs while updating the task, it returns an error response to the client.
      *     If no task is found, it returns a not found response to the client.
+     *     If the If-Match request header does not match the version of the task, it returns a precondition failed response.
+     *     If the task is modified concurrently, it returns a conflict response.
      *     If task is updated successfully, it returns the updated task.
-     *     It also returns the location of the task in the response header.
+     *     It also returns the location and the new version of the task as ETag in the response header.
      *     It handles validation errors and returns a bad request response to the client in case of a invalid task.
      * </p>
      * @param taskId        Id of the task to be updated
+     * @param ifMatch       ETag of the version the task must have, may be null
      * @param taskDto       Task to be updated
      * @param bindingResult BindingResult to handle validation errors
      * @param uriBuilder    UriBuilder to build the location of the task
@@ -146,6 +397,7 @@ public class TaskController {
      */
     @PutMapping("/{taskId}")
     public ResponseEntity<TaskDto> updateTask(@PathVariable @NotNull Long taskId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                               @RequestBody @Valid TaskDto taskDto,
                                               BindingResult bindingResult,
                                               UriComponentsBuilder uriBuilder) {
@@ -157,18 +409,98 @@ public class TaskController {
         }
 
         try {
-            TaskDto taskDtoResponse = taskService.updateTask(taskId, taskDto);
+            TaskDto taskDtoResponse = taskService.updateTask(taskId, taskDto, expectedVersion(ifMatch));
             URI uri = uriBuilder.path("/task/{taskId}").buildAndExpand(taskDtoResponse.getId()).toUri();
             logger.info("Returning updated Task: {}", taskDtoResponse);
-            return ResponseEntity.ok().location(uri).body(taskDtoResponse);
+            return ResponseEntity.ok().location(uri).eTag(eTag(taskDtoResponse)).body(taskDtoResponse);
         } catch (TaskNotFoundException ex) {
             return ResponseEntity.notFound().build();
+        } catch (TaskConflictException ex) {
+            return ResponseEntity.status(ex.getStatus()).build();
         } catch (Exception ex) {
             logger.error("An error occurred while updating task: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(taskDto);
         }
     }
 
+    /**
+     * Patch a task
+     * <p>
+     *     This method is responsible for handling PATCH request to update some fields of a task.
+     *     Only the fields which are set in the request body are updated, all other fields keep their value.
+     *     It delegates the request to the service layer and returns the response to the client.
+     *     If any error occurs while patching the task, it returns an error response to the client.
+     *     If no task is found, it returns a not found response to the client.
+     *     If the If-Match request header does not match the version of the task, it returns a precondition failed response.
+     *     If task is patched successfully, it returns the patched task.
+     *     It also returns the location and the new version of the task as ETag in the response header.
+     *     It handles validation errors and returns a bad request response to the client in case of a invalid patch.
+     * </p>
+     * @param taskId        Id of the task to be patched
+     * @param ifMatch       ETag of the version the task must have, may be null
+     * @param patch         Fields to be updated
+     * @param bindingResult BindingResult to handle validation errors
+     * @param uriBuilder    UriBuilder to build the location of the task
+     * @return              Patched task
+     */
+    @PatchMapping("/{taskId}")
+    public ResponseEntity<TaskDto> patchTask(@PathVariable @NotNull Long taskId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody @Valid PatchTaskDto patch,
+                                             BindingResult bindingResult,
+                                             UriComponentsBuilder uriBuilder) {
+        logger.info("Received request to patch Task with id: {}", taskId);
+        if (bindingResult.hasErrors()) {
+            logger.error("Validation errors occurred while patching task: {}", patch);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            TaskDto taskDtoResponse = taskService.patchTask(taskId, patch, expectedVersion(ifMatch));
+            URI uri = uriBuilder.path("/task/{taskId}").buildAndExpand(taskDtoResponse.getId()).toUri();
+            logger.info("Returning patched Task: {}", taskDtoResponse);
+            return ResponseEntity.ok().location(uri).eTag(eTag(taskDtoResponse)).body(taskDtoResponse);
+        } catch (TaskNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (TaskConflictException ex) {
+            return ResponseEntity.status(ex.getStatus()).build();
+        } catch (Exception ex) {
+            logger.error("An error occurred while patching task: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Update the status of a task asynchronously
+     * <p>
+     *     This method is responsible for handling PUT request to update the status of a task without waiting for the database.
+     *     The status is buffered and written within the flush interval of the status buffer, together with the statuses of other tasks.
+     *     If the status of the task is updated again before it has been written, only the latest status is written.
+     *     It returns an accepted response to the client once the status has been buffered; updates of tasks which do not exist
+     *     are dropped when the buffer is written.
+     *     If the buffer is full or the buffered statuses cannot be written, it returns a service unavailable response with a Retry-After header.
+     *     It handles validation errors and returns a bad request response to the client in case of a invalid status.
+     * </p>
+     * @param taskId        Id of the task to be updated
+     * @param statusUpdate  New status of the task
+     * @param bindingResult BindingResult to handle validation errors
+     * @return              Empty response
+     */
+    @PutMapping("/{taskId}/status")
+    public ResponseEntity<Void> updateTaskStatus(@PathVariable @NotNull Long taskId,
+                                                 @RequestBody @Valid StatusUpdateDto statusUpdate,
+                                                 BindingResult bindingResult) {
+        logger.debug("Received request to update status of Task with id: {}", taskId);
+        if (bindingResult.hasErrors()) {
+            logger.error("Validation errors occurred while updating status of task: {}", statusUpdate);
+            return ResponseEntity.badRequest().build();
+        }
+        if (!taskStatusBuffer.update(taskId, statusUpdate.getStatus())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * Delete a task
      * <p>
@@ -194,4 +526,115 @@ public class TaskController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Create tasks in a batch
+     * <p>
+     *     This method is responsible for handling POST request to create many tasks at once.
+     *     It delegates the request to the batch service and returns one result per task to the client.
+     *     Each result contains the id of the created task or the reason why the task could not be created.
+     *     It returns a bad request response to the client if the batch is empty or too large.
+     * </p>
+     * @param taskDtos Tasks to be created
+     * @return         Result per task in the order of the request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResultDto>> createTasks(@RequestBody List<CreateTaskDto> taskDtos) {
+        logger.info("Received request to create {} tasks", taskDtos.size());
+        if (taskDtos.isEmpty() || taskDtos.size() > maxBatchSize) {
+            logger.error("Invalid batch size: {}", taskDtos.size());
+            return ResponseEntity.badRequest().build();
+        }
+        List<BatchResultDto> results = taskBatchService.createTasks(taskDtos);
+        logger.info("Returning results of creating {} tasks", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update tasks in a batch
+     * <p>
+     *     This method is responsible for handling PUT request to update many tasks at once.
+     *     It delegates the request to the batch service and returns one result per task to the client.
+     *     Each task is identified by its id.
+     *     It returns a bad request response to the client if the batch is empty or too large.
+     * </p>
+     * @param taskDtos Tasks to be updated
+     * @return         Result per task in the order of the request
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchResultDto>> updateTasks(@RequestBody List<TaskDto> taskDtos) {
+        logger.info("Received request to update {} tasks", taskDtos.size());
+        if (taskDtos.isEmpty() || taskDtos.size() > maxBatchSize) {
+            logger.error("Invalid batch size: {}", taskDtos.size());
+            return ResponseEntity.badRequest().build();
+        }
+        List<BatchResultDto> results = taskBatchService.updateTasks(taskDtos);
+        logger.info("Returning results of updating {} tasks", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Delete tasks in a batch
+     * <p>
+     *     This method is responsible for handling DELETE request to delete many tasks at once.
+     *     It delegates the request to the batch service and returns one result per task to the client.
+     *     It returns a bad request response to the client if the batch is empty or too large.
+     * </p>
+     * @param taskIds Ids of the tasks to be deleted
+     * @return        Result per task in the order of the request
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchResultDto>> deleteTasks(@RequestBody List<Long> taskIds) {
+        logger.info("Received request to delete {} tasks", taskIds.size());
+        if (taskIds.isEmpty() || taskIds.size() > maxBatchSize) {
+            logger.error("Invalid batch size: {}", taskIds.size());
+            return ResponseEntity.badRequest().build();
+        }
+        List<BatchResultDto> results = taskBatchService.deleteTasks(taskIds);
+        logger.info("Returning results of deleting {} tasks", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Wrap tasks with the sparse fieldset filter for the message converters.
+     *
+     * @param taskDtos    Tasks to be returned
+     * @param fieldFilter Filter of the fields to be returned, null for all fields
+     * @return            Tasks with their filter
+     */
+    private static MappingJacksonValue withFields(List<TaskDto> taskDtos, FilterProvider fieldFilter) {
+        MappingJacksonValue value = new MappingJacksonValue(taskDtos);
+        value.setFilters(fieldFilter);
+        return value;
+    }
+
+    private static String eTag(TaskDto taskDto) {
+        return "\"" + taskDto.getVersion() + "\"";
+    }
+
+    /**
+     * Get the version a task must have from an If-Match request header.
+     * <p>
+     *     A missing header or {@code *} match any version.
+     *     An ETag which is not a task version cannot match any version, so the update fails with precondition failed.
+     * </p>
+     *
+     * @param ifMatch Value of the If-Match request header, may be null
+     * @return        Expected version or null if any version matches
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        eTag = eTag.replace("\"", "");
+        try {
+            return Long.valueOf(eTag);
+        } catch (NumberFormatException ex) {
+            throw new TaskConflictException("Invalid ETag: " + ifMatch, HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+}
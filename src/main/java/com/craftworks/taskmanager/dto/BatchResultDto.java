@@ -0,0 +1,42 @@
+package com.craftworks.taskmanager.dto;
+
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Data Transfer Object for the result of a single item of a batch request.
+ */
+@Data
+public class BatchResultDto {
+
+    /**
+     * Position of the item in the batch request.
+     */
+    private int index;
+
+    /**
+     * Id of the task the item refers to, null if the task could not be created.
+     */
+    private Long id;
+
+    /**
+     * HTTP status code the item would have received as single request.
+     */
+    private int status;
+
+    private String error;
+
+    public static BatchResultDto succeeded(int index, Long id, HttpStatus status) {
+        BatchResultDto result = new BatchResultDto();
+        result.setIndex(index);
+        result.setId(id);
+        result.setStatus(status.value());
+        return result;
+    }
+
+    public static BatchResultDto failed(int index, Long id, HttpStatus status, String error) {
+        BatchResultDto result = succeeded(index, id, status);
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package com.craftworks.taskmanager.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object for the statistics of a cache.
+ */
+@Data
+public class CacheStatsDto {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
@@ -0,0 +1,36 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a partial update of a task.
+ * <p>
+ *     Only the fields which are set are updated, fields which are null keep their current value.
+ * </p>
+ */
+@Data
+public class PatchTaskDto {
+
+    @Future
+    private LocalDate dueDate;
+
+    @Future
+    private LocalDateTime resolvedAt;
+
+    @Size(min = 1, max = 255)
+    private String title;
+
+    @Size(min = 1, max = 1000)
+    private String description;
+
+    private Priority priority;
+
+    private Status status;
+}
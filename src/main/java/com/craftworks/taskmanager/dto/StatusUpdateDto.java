@@ -0,0 +1,15 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.enumeration.Status;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for an asynchronous status update of a task.
+ */
+@Data
+public class StatusUpdateDto {
+
+    @NotNull
+    private Status status;
+}
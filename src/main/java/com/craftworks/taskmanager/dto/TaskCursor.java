@@ -0,0 +1,50 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.enumeration.TaskSortField;
+
+/**
+ * Keyset cursor pointing at the last task of a page.
+ * <p>
+ *     The cursor is exchanged with clients as {@code <value>,<id>}, where the value is the sort field of the last task,
+ *     e.g. its title or its ISO formatted due date, or {@code null} for a task without due date.
+ *     The id is separated at the last comma, so titles may contain commas themselves.
+ * </p>
+ *
+ * @param value Value of the sort field of the last task of the page
+ * @param id    Id of the last task of the page
+ */
+public record TaskCursor(String value, Long id) {
+
+    /**
+     * Parse a cursor from its client representation.
+     *
+     * @param cursor Cursor in the form {@code <value>,<id>}
+     * @return       Parsed cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TaskCursor parse(String cursor) {
+        int separator = cursor.lastIndexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Cursor must have the form <value>,<id>: " + cursor);
+        }
+        try {
+            return new TaskCursor(cursor.substring(0, separator), Long.valueOf(cursor.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Cursor id is not a number: " + cursor);
+        }
+    }
+
+    public static TaskCursor of(TaskDto taskDto, TaskSortField sortField) {
+        Object value = switch (sortField) {
+            case TITLE -> taskDto.getTitle();
+            case CREATED_AT -> taskDto.getCreatedAt();
+            case DUE_DATE -> taskDto.getDueDate();
+        };
+        return new TaskCursor(String.valueOf(value), taskDto.getId());
+    }
+
+    @Override
+    public String toString() {
+        return value + "," + id;
+    }
+}
@@ -7,14 +7,22 @@ import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 /**
  * Data Transfer Object for a task.
+ * <p>
+ *     Read queries select tasks directly into TaskDtos through the all-args constructor,
+ *     whose parameters follow the order of the fields.
+ * </p>
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TaskDto {
 
     @NotNull
@@ -45,4 +53,6 @@ public class TaskDto {
 
     @NotNull
     public Status status;
+
+    private Long version;
 }
@@ -0,0 +1,28 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for a change of a task in the change feed.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEventDto {
+
+    private TaskEvent.Type type;
+    private Long taskId;
+    /**
+     * State of the task after the change, null if the task has been deleted or archived.
+     */
+    private TaskDto task;
+
+    public static TaskEventDto of(TaskEvent event) {
+        TaskEventDto taskEventDto = new TaskEventDto();
+        taskEventDto.setType(event.type());
+        taskEventDto.setTaskId(event.taskId());
+        taskEventDto.setTask(event.after());
+        return taskEventDto;
+    }
+}
@@ -0,0 +1,53 @@
+package com.craftworks.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets of TaskDtos.
+ * <p>
+ *     The {@link Mixin} attaches the filter to TaskDto in the object mapper of the REST API only.
+ *     Without a filter provider for a response, all fields are serialized.
+ * </p>
+ */
+public final class TaskFields {
+
+    public static final String FILTER = "taskFields";
+
+    private static final Set<String> FIELDS = Set.of(
+            "id", "createdAt", "updatedAt", "dueDate", "resolvedAt", "title", "description", "priority", "status", "version");
+
+    private TaskFields() {
+    }
+
+    /**
+     * Create the filter provider serializing only the given fields of TaskDtos.
+     *
+     * @param fields Comma separated names of the fields
+     * @return       Filter provider for the fields
+     * @throws IllegalArgumentException If a field is not a field of TaskDto
+     */
+    public static FilterProvider filter(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown task field: " + name);
+            }
+            selected.add(name);
+        }
+        return new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+    }
+
+    /**
+     * Mixin attaching the sparse fieldset filter to TaskDto.
+     */
+    @JsonFilter(FILTER)
+    public interface Mixin {
+    }
+}
@@ -0,0 +1,57 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.enumeration.TaskSortField;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the filter and sort parameters of a task query.
+ * <p>
+ *     All ranges are inclusive. Fields which are not set do not restrict the query.
+ * </p>
+ */
+@Data
+public class TaskFilterDto {
+
+    private Status status;
+    private Priority priority;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    private String sort = TaskSortField.TITLE.getProperty();
+    private String direction = Sort.Direction.ASC.name();
+
+    public TaskSortField sortField() {
+        return TaskSortField.fromProperty(sort);
+    }
+
+    public Sort.Direction sortDirection() {
+        return Sort.Direction.fromString(direction);
+    }
+
+    /**
+     * @return true if neither a filter nor a sort order other than the default is set
+     */
+    public boolean isDefault() {
+        return status == null && priority == null
+                && dueFrom == null && dueTo == null
+                && createdFrom == null && createdTo == null
+                && sortField() == TaskSortField.TITLE && sortDirection().isAscending();
+    }
+}
@@ -0,0 +1,23 @@
+package com.craftworks.taskmanager.dto;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the statistics of all tasks.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskStatsDto {
+
+    private long total;
+    private Map<Status, Long> byStatus;
+    private Map<Priority, Long> byPriority;
+    private long overdue;
+    private Map<LocalDate, Long> byCreationDay;
+}
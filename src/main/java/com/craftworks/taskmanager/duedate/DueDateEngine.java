@@ -0,0 +1,305 @@
+package com.craftworks.taskmanager.duedate;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.exception.LeaseLostException;
+import com.craftworks.taskmanager.lease.LeaseManager;
+import com.craftworks.taskmanager.service.TaskEscalationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Engine escalating tasks exactly when they become overdue.
+ * <p>
+ *     A task becomes overdue at the start of the day after its due date, like in the task statistics.
+ *     The deadlines of all unresolved tasks which would be escalated are read once when the application is ready
+ *     and kept in a {@link TimingWheel} with a resolution of {@code taskmanager.due-dates.tick} milliseconds.
+ *     Afterwards the wheel is kept in sync with the committed task events, so the tasks table is not polled.
+ *     Every tick the wheel is advanced and the tasks which have become due are escalated by {@link TaskEscalationService}
+ *     in batches of {@code taskmanager.due-dates.batch-size}. Tasks which were already overdue at startup are escalated right away.
+ * </p>
+ * <p>
+ *     The cost of a tick does not depend on the number of scheduled deadlines, so the engine copes with millions of them;
+ *     memory is the limit, at roughly 100 bytes per deadline. Due tasks which could not be escalated are retried on the next tick.
+ * </p>
+ * <p>
+ *     When several nodes share the database, the tasks are divided into shards by id and each node escalates the tasks of the shards
+ *     it holds the lease of. The task events of a node only reach its own wheel, so a node taking over a shard reads the deadlines
+ *     of the shard again, and every {@code taskmanager.due-dates.poll-interval} milliseconds each node reads the overdue tasks
+ *     of the shards it holds which have not been escalated yet. Tasks changed on another node, or become due while their shard
+ *     was held by a node which has died, are escalated within the poll interval this way.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.due-dates.enabled", havingValue = "true", matchIfMissing = true)
+public class DueDateEngine {
+
+    private static final String JOB = "due-dates";
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 5;
+    private static final String SELECT_DEADLINES = "SELECT id, due_date FROM tasks"
+            + " WHERE due_date IS NOT NULL AND status <> 'RESOLVED' AND priority = ANY(?::varchar[]) AND id % ? = ?";
+    // Tasks changed after they had become overdue are skipped, as their priority may have been lowered on purpose
+    private static final String SELECT_OVERDUE = "SELECT id FROM tasks"
+            + " WHERE due_date < ? AND status <> 'RESOLVED' AND priority = ANY(?::varchar[]) AND id % ? = ?"
+            + " AND (updated_at IS NULL OR updated_at < due_date + 1)";
+
+    private final Logger logger = LoggerFactory.getLogger(DueDateEngine.class);
+    private final TaskEscalationService taskEscalationService;
+    private final LeaseManager leaseManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final long tickMillis;
+    private final int batchSize;
+    private final long pollMillis;
+    private final String[] priorities;
+    private final TimingWheel wheel;
+    private final ConcurrentLinkedQueue<Long> due = new ConcurrentLinkedQueue<>();
+    private final List<Set<Long>> changedWhileLoading = new CopyOnWriteArrayList<>();
+    private final Counter escalatedTasks;
+    private Map<Integer, Long> heldShards;
+    private long lastPollMillis;
+
+    @Autowired
+    public DueDateEngine(TaskEscalationService taskEscalationService,
+                         LeaseManager leaseManager,
+                         DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${taskmanager.due-dates.tick:1000}") long tickMillis,
+                         @Value("${taskmanager.due-dates.batch-size:1000}") int batchSize,
+                         @Value("${taskmanager.due-dates.poll-interval:60000}") long pollMillis,
+                         @Value("${taskmanager.due-dates.fetch-size:10000}") int fetchSize) {
+        this.taskEscalationService = taskEscalationService;
+        this.leaseManager = leaseManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.priorities = Arrays.stream(Priority.values())
+                .filter(taskEscalationService::isBelowEscalation)
+                .map(Priority::name)
+                .toArray(String[]::new);
+        this.lastPollMillis = System.currentTimeMillis();
+        this.wheel = new TimingWheel(WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis() / tickMillis);
+        Gauge.builder("taskmanager.due-dates.scheduled", wheel, TimingWheel::size)
+                .description("Number of task deadlines in the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("taskmanager.due-dates.due", due, ConcurrentLinkedQueue::size)
+                .description("Number of due tasks waiting to be escalated")
+                .register(meterRegistry);
+        this.escalatedTasks = Counter.builder("taskmanager.due-dates.escalated")
+                .description("Number of tasks escalated because they have become overdue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Read the deadlines of all tasks which would be escalated.
+     * Tasks changed while the deadlines are read are taken from their task events instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDeadlines() {
+        loadDeadlines(1, 0);
+    }
+
+    /**
+     * Read the deadlines of the tasks of a shard which would be escalated, streaming the rows with the fetch size.
+     * Tasks whose events arrive during the read keep the deadline of their event, which is newer than the row read.
+     */
+    private void loadDeadlines(int shards, int shard) {
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedWhileLoading.add(changed);
+        long[] counts = new long[2];
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SELECT_DEADLINES,
+                    statement -> {
+                        statement.setArray(1, statement.getConnection().createArrayOf("varchar", priorities));
+                        statement.setInt(2, shards);
+                        statement.setInt(3, shard);
+                    },
+                    resultSet -> {
+                        long taskId = resultSet.getLong("id");
+                        if (!changed.contains(taskId)) {
+                            counts[schedule(taskId, resultSet.getDate("due_date").toLocalDate()) ? 0 : 1]++;
+                        }
+                    }));
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while loading the due dates of shard {} of {}: {}", shard, shards, ex.getMessage());
+        } finally {
+            changedWhileLoading.removeIf(loading -> loading == changed);
+        }
+        logger.info("Scheduled {} due dates of shard {} of {}, {} tasks are overdue already", counts[0], shard, shards, counts[1]);
+    }
+
+    /**
+     * Keep the deadline of a task in sync with its committed changes.
+     *
+     * @param event Change of a task
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        changedWhileLoading.forEach(changed -> changed.add(event.taskId()));
+        TaskDto task = event.after();
+        if (task == null || task.getDueDate() == null || task.getStatus() == Status.RESOLVED
+                || !taskEscalationService.isBelowEscalation(task.getPriority())) {
+            wheel.cancel(task == null ? event.taskId() : task.getId());
+        } else {
+            // A deadline which has passed already is not scheduled,
+            // so an overdue task whose priority has been lowered on purpose is not raised again
+            wheel.schedule(task.getId(), deadlineTick(task.getDueDate()));
+        }
+    }
+
+    /**
+     * Advance the timing wheel to the current time and escalate the tasks of the shards held by this node which have become due.
+     * Every node keeps the deadlines of its own task events, and due tasks of shards held by other nodes are left to them.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.due-dates.tick:1000}")
+    public void tick() {
+        due.addAll(wheel.advance(System.currentTimeMillis() / tickMillis));
+        int shards = leaseManager.getShards();
+        Map<Integer, Long> tokens = leaseManager.acquireShards(JOB);
+        if (heldShards != null) {
+            tokens.forEach((shard, token) -> {
+                if (!token.equals(heldShards.get(shard))) {
+                    // The shard has been taken over, possibly from a node which has died before escalating its due tasks
+                    loadDeadlines(shards, shard);
+                }
+            });
+        }
+        heldShards = tokens;
+        long now = System.currentTimeMillis();
+        if (now - lastPollMillis >= pollMillis) {
+            lastPollMillis = now;
+            tokens.keySet().forEach(shard -> pollOverdue(shards, shard));
+        }
+
+        Map<Integer, Set<Long>> dueByShard = new TreeMap<>();
+        Long taskId;
+        while ((taskId = due.poll()) != null) {
+            int shard = Math.floorMod(taskId, shards);
+            if (tokens.containsKey(shard)) {
+                dueByShard.computeIfAbsent(shard, key -> new LinkedHashSet<>()).add(taskId);
+            }
+        }
+        Iterator<Map.Entry<Integer, Set<Long>>> shardsToEscalate = dueByShard.entrySet().iterator();
+        while (shardsToEscalate.hasNext()) {
+            Map.Entry<Integer, Set<Long>> entry = shardsToEscalate.next();
+            List<Long> taskIds = new ArrayList<>(entry.getValue());
+            for (int from = 0; from < taskIds.size(); from += batchSize) {
+                List<Long> batch = taskIds.subList(from, Math.min(from + batchSize, taskIds.size()));
+                if (!escalate(entry.getKey(), tokens.get(entry.getKey()), batch)) {
+                    // Keep the due tasks which have not been escalated for the next tick
+                    due.addAll(taskIds.subList(from, taskIds.size()));
+                    shardsToEscalate.forEachRemaining(remaining -> due.addAll(remaining.getValue()));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue the overdue tasks of a shard which have not been escalated and have not been changed since they became overdue,
+     * e.g. because their due date was set on another node.
+     */
+    private void pollOverdue(int shards, int shard) {
+        try {
+            List<Long> taskIds = readOnlyTransactionTemplate.execute(status -> jdbcTemplate.query(SELECT_OVERDUE,
+                    statement -> {
+                        statement.setDate(1, Date.valueOf(LocalDate.now()));
+                        statement.setArray(2, statement.getConnection().createArrayOf("varchar", priorities));
+                        statement.setInt(3, shards);
+                        statement.setInt(4, shard);
+                    },
+                    (resultSet, rowNum) -> resultSet.getLong("id")));
+            if (!taskIds.isEmpty()) {
+                logger.info("Found {} overdue tasks of shard {} of {} which have not been escalated", taskIds.size(), shard, shards);
+                due.addAll(taskIds);
+            }
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while polling the overdue tasks of shard {} of {}: {}", shard, shards, ex.getMessage());
+        }
+    }
+
+    /**
+     * Schedule the deadline of a task, or queue the task for escalation if it is overdue already.
+     *
+     * @return Whether the deadline has been scheduled
+     */
+    private boolean schedule(long taskId, LocalDate dueDate) {
+        if (wheel.schedule(taskId, deadlineTick(dueDate))) {
+            return true;
+        }
+        due.add(taskId);
+        return false;
+    }
+
+    /**
+     * Escalate a batch of due tasks of a shard in a transaction fenced by the lease of the shard.
+     *
+     * @return Whether the batch has been escalated, false if the tasks have to be retried
+     */
+    private boolean escalate(int shard, long token, List<Long> batch) {
+        try {
+            List<TaskEvent> escalated = transactionTemplate.execute(status -> {
+                leaseManager.fence(LeaseManager.shardName(JOB, shard), token);
+                return taskEscalationService.escalate(batch);
+            });
+            escalatedTasks.increment(escalated.size());
+            return true;
+        } catch (LeaseLostException ex) {
+            // The node which has taken over the shard escalates its overdue tasks
+            logger.warn("Lost shard {} while escalating {} due tasks", shard, batch.size());
+            return true;
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while escalating {} due tasks: {}", batch.size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * First tick at which a task with the given due date is overdue.
+     */
+    private long deadlineTick(LocalDate dueDate) {
+        long deadlineMillis = dueDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.ceilDiv(deadlineMillis, tickMillis);
+    }
+}
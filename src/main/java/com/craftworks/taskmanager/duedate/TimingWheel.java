@@ -0,0 +1,178 @@
+package com.craftworks.taskmanager.duedate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of task deadlines.
+ * <p>
+ *     Time is divided into ticks. Each level of the wheel has {@code 2^bits} slots, and a slot of level {@code n} covers
+ *     {@code 2^(bits * n)} ticks, so level 0 holds the deadlines of the current round tick by tick and every further level
+ *     holds deadlines further in the future with a coarser resolution. A deadline is placed in the level of the highest
+ *     {@code bits}-wide digit in which it differs from the current tick. When the current tick reaches a slot of a higher level,
+ *     its deadlines are cascaded into the lower levels, so each deadline is moved at most once per level.
+ *     Deadlines beyond the highest level are kept in an overflow set, which is redistributed once per revolution of the highest level.
+ * </p>
+ * <p>
+ *     Scheduling and cancelling a deadline take constant time, and advancing by one tick visits one slot per level,
+ *     independent of the number of scheduled deadlines. Each task has at most one deadline;
+ *     scheduling a task again replaces its deadline. The wheel is thread-safe.
+ * </p>
+ */
+public class TimingWheel {
+
+    private final int bits;
+    private final int levels;
+    private final long mask;
+    private final Set<Long>[][] slots;
+    private final Set<Long> overflow = new HashSet<>();
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param bits        Number of bits of the slot index per level, i.e. each level has {@code 2^bits} slots
+     * @param levels      Number of levels
+     * @param currentTick Tick the wheel starts at
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int bits, int levels, long currentTick) {
+        if (bits < 1 || levels < 1 || bits * levels > 62) {
+            throw new IllegalArgumentException("Unsupported timing wheel of " + levels + " levels with " + bits + " bits");
+        }
+        this.bits = bits;
+        this.levels = levels;
+        this.mask = (1L << bits) - 1;
+        this.slots = new Set[levels][1 << bits];
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Schedule the deadline of a task, replacing a deadline scheduled earlier.
+     *
+     * @param taskId       Id of the task
+     * @param deadlineTick Tick at which the task becomes due
+     * @return             Whether the deadline has been scheduled, false if it is not after the current tick
+     */
+    public synchronized boolean schedule(long taskId, long deadlineTick) {
+        cancel(taskId);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        deadlines.put(taskId, deadlineTick);
+        place(taskId, deadlineTick);
+        return true;
+    }
+
+    /**
+     * Cancel the deadline of a task.
+     *
+     * @param taskId Id of the task
+     * @return       Whether a deadline of the task had been scheduled
+     */
+    public synchronized boolean cancel(long taskId) {
+        Long deadlineTick = deadlines.remove(taskId);
+        if (deadlineTick == null) {
+            return false;
+        }
+        int level = level(deadlineTick);
+        Set<Long> slot = level < levels ? slots[level][slot(deadlineTick, level)] : overflow;
+        slot.remove(taskId);
+        return true;
+    }
+
+    /**
+     * Advance the wheel tick by tick up to the given tick and remove the deadlines which have been reached.
+     *
+     * @param tick Tick to advance to
+     * @return     Ids of the tasks which have become due
+     */
+    public synchronized List<Long> advance(long tick) {
+        List<Long> due = new ArrayList<>();
+        while (currentTick < tick) {
+            currentTick++;
+            if ((currentTick & ((1L << (bits * levels)) - 1)) == 0) {
+                redistribute(overflow, due);
+            }
+            // Cascade from the highest level down, so deadlines can move through several levels within one tick
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    int index = slot(currentTick, level);
+                    Set<Long> slot = slots[level][index];
+                    if (slot != null) {
+                        slots[level][index] = null;
+                        redistribute(slot, due);
+                    }
+                }
+            }
+            int index = slot(currentTick, 0);
+            Set<Long> slot = slots[0][index];
+            if (slot != null) {
+                slots[0][index] = null;
+                for (Long taskId : slot) {
+                    deadlines.remove(taskId);
+                    due.add(taskId);
+                }
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return Number of scheduled deadlines
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * @return Current tick of the wheel
+     */
+    public synchronized long currentTick() {
+        return currentTick;
+    }
+
+    private void redistribute(Set<Long> taskIds, List<Long> due) {
+        List<Long> moved = new ArrayList<>(taskIds);
+        taskIds.clear();
+        for (Long taskId : moved) {
+            long deadlineTick = deadlines.get(taskId);
+            if (deadlineTick <= currentTick) {
+                deadlines.remove(taskId);
+                due.add(taskId);
+            } else {
+                place(taskId, deadlineTick);
+            }
+        }
+    }
+
+    private void place(long taskId, long deadlineTick) {
+        int level = level(deadlineTick);
+        if (level >= levels) {
+            overflow.add(taskId);
+            return;
+        }
+        int index = slot(deadlineTick, level);
+        Set<Long> slot = slots[level][index];
+        if (slot == null) {
+            slot = new HashSet<>();
+            slots[level][index] = slot;
+        }
+        slot.add(taskId);
+    }
+
+    /**
+     * Level of a deadline after the current tick, given by the highest digit in which both differ.
+     */
+    private int level(long deadlineTick) {
+        long difference = deadlineTick ^ currentTick;
+        return (63 - Long.numberOfLeadingZeros(difference)) / bits;
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick >>> (bits * level)) & mask);
+    }
+}
@@ -0,0 +1,58 @@
+package com.craftworks.taskmanager.entity;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity for a resolved task which has been moved from the tasks table into the archive.
+ * <p>
+ *     Archived tasks keep their id, so they can still be looked up by it. They are read-only.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "tasks_archive")
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "priority")
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
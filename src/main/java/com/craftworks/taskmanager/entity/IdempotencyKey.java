@@ -0,0 +1,66 @@
+package com.craftworks.taskmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for an Idempotency-Key of a create request and the task it has created.
+ * <p>
+ *     The key is inserted in the transaction creating the task, so the primary key prevents
+ *     two instances from creating a task for the same key. New keys are always persisted rather than merged,
+ *     so a key inserted concurrently by another instance fails the insert instead of being overwritten.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Hash of the request body, to detect a key reused for another request.
+     */
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    /**
+     * Created task as JSON document.
+     */
+    @Column(name = "response", nullable = false, columnDefinition = "text")
+    private String response;
+
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
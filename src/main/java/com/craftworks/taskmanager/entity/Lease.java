@@ -0,0 +1,39 @@
+package com.craftworks.taskmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entity for a lease on a background job, or on a shard of it, held by one node of the application.
+ * <p>
+ *     Leases are acquired and renewed with SQL by {@link com.craftworks.taskmanager.lease.LeaseManager},
+ *     based on the clock of the database, so the clocks of the nodes do not need to agree.
+ *     The fencing token is incremented whenever the lease is acquired after it has expired,
+ *     so work started under an expired lease can be told apart from work of the current holder.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "leases")
+public class Lease {
+
+    @Id
+    @Column(name = "name", length = 200)
+    private String name;
+
+    /**
+     * Id of the node holding the lease.
+     */
+    @Column(name = "owner", nullable = false, length = 200)
+    private String owner;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,53 @@
+package com.craftworks.taskmanager.entity;
+
+import com.craftworks.taskmanager.event.TaskEvent;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for a task event waiting in the outbox to be dispatched.
+ * <p>
+ *     Events are written in the transaction of the task change and deleted once they have been dispatched.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "task_outbox", indexes = {
+        @Index(name = "idx_task_outbox_next_attempt_at", columnList = "next_attempt_at, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_seq")
+    @SequenceGenerator(name = "task_outbox_seq", sequenceName = "task_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private TaskEvent.Type type;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    /**
+     * Event as JSON document.
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -12,16 +12,30 @@ import java.time.LocalDateTime;
 
 /**
  * Entity for a task.
+ * <p>
+ *     The entity is mapped by JPA for the blocking API. The reactive API maps the same table to {@link TaskRow}.
+ * </p>
  */
 @Getter
 @Setter
 @EqualsAndHashCode
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_title_id", columnList = "title, id"),
+        @Index(name = "idx_tasks_status_due_date", columnList = "status, due_date, id"),
+        @Index(name = "idx_tasks_priority_status_due_date", columnList = "priority, status, due_date"),
+        @Index(name = "idx_tasks_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_tasks_status_resolved_at", columnList = "status, resolved_at")
+})
 public class Task {
 
+    /**
+     * Ids are drawn from a pooled sequence in blocks of 50, so inserting a batch of tasks needs one sequence call per block.
+     * The sequence name matches the one Hibernate generated for the previous {@code AUTO} strategy.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "created_at")
@@ -49,4 +63,12 @@ public class Task {
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     private Status status;
+
+    /**
+     * Version for optimistic locking, exposed to clients as ETag.
+     * The column default initializes the version of tasks which existed before the column was added.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
 }
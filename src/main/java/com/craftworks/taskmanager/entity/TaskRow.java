@@ -0,0 +1,60 @@
+package com.craftworks.taskmanager.entity;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the tasks table as mapped by Spring Data R2DBC for the reactive API.
+ * <p>
+ *     The {@link Task} entity is mapped by JPA only, as Spring Data JPA rejects the mapping annotations of Spring Data Relational.
+ *     Both map the same columns and are converted into each other by the {@code TaskMapper}.
+ * </p>
+ */
+@Getter
+@Setter
+@Table("tasks")
+public class TaskRow {
+
+    @Id
+    private Long id;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column("due_date")
+    private LocalDate dueDate;
+
+    @Column("resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @Column("title")
+    private String title;
+
+    @Column("description")
+    private String description;
+
+    @Column("priority")
+    private Priority priority;
+
+    @Column("status")
+    private Status status;
+
+    /**
+     * Version for optimistic locking, incremented and checked by every update like the version of the JPA entity.
+     */
+    @Version
+    @Column("version")
+    private Long version;
+}
@@ -0,0 +1,36 @@
+package com.craftworks.taskmanager.enumeration;
+
+import java.util.Arrays;
+
+/**
+ * Enum for the fields tasks can be sorted by.
+ */
+public enum TaskSortField {
+    TITLE("title"),
+    CREATED_AT("createdAt"),
+    DUE_DATE("dueDate");
+
+    private final String property;
+
+    TaskSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Get the sort field for the given property name.
+     *
+     * @param property Property name as used in the API, e.g. {@code dueDate}
+     * @return         Sort field
+     * @throws IllegalArgumentException if tasks cannot be sorted by the property
+     */
+    public static TaskSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Tasks cannot be sorted by: " + property));
+    }
+}
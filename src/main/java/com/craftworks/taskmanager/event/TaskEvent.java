@@ -0,0 +1,51 @@
+package com.craftworks.taskmanager.event;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+
+/**
+ * Application event for a task which has been created, updated, deleted or archived.
+ * <p>
+ *     The event carries the state of the task before and after the change, so listeners can derive what has changed.
+ *     It is published inside the transaction of the change; listeners interested in committed changes only
+ *     listen with {@link org.springframework.transaction.event.TransactionalEventListener}.
+ * </p>
+ *
+ * @param type   Type of the change
+ * @param before State of the task before the change, null if the task has been created
+ * @param after  State of the task after the change, null if the task has been deleted or archived
+ */
+public record TaskEvent(Type type, TaskDto before, TaskDto after) {
+
+    /**
+     * Type of a change of a task.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ARCHIVED
+    }
+
+    public static TaskEvent created(TaskDto after) {
+        return new TaskEvent(Type.CREATED, null, after);
+    }
+
+    public static TaskEvent updated(TaskDto before, TaskDto after) {
+        return new TaskEvent(Type.UPDATED, before, after);
+    }
+
+    public static TaskEvent deleted(TaskDto before) {
+        return new TaskEvent(Type.DELETED, before, null);
+    }
+
+    public static TaskEvent archived(TaskDto before) {
+        return new TaskEvent(Type.ARCHIVED, before, null);
+    }
+
+    /**
+     * @return Id of the changed task
+     */
+    public Long taskId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
@@ -0,0 +1,11 @@
+package com.craftworks.taskmanager.exception;
+
+/**
+ * Exception for when a background job has lost its lease, so its work is rolled back instead of being done twice.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.craftworks.taskmanager.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception for when a task has been modified concurrently or does not have the expected version.
+ */
+public class TaskConflictException extends RuntimeException {
+
+    private HttpStatus status;
+
+    public TaskConflictException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
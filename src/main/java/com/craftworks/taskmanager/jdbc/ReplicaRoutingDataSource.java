@@ -0,0 +1,173 @@
+package com.craftworks.taskmanager.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * DataSource which routes read-only transactions to replicas and everything else to the primary.
+ * <p>
+ *     Replicas are used round-robin. A replica is skipped while it is unhealthy, i.e. while its last health check failed,
+ *     it lags behind the primary by more than the maximum lag, or a connection to it could not be obtained.
+ *     The health of the replicas is checked periodically with the lag query, which returns the lag in seconds.
+ *     Without a lag query, only the connection is checked.
+ *     If no replica is healthy, read-only transactions fall back to the primary, unless the fallback is disabled.
+ * </p>
+ * <p>
+ *     The transaction manager requests the connection before the transaction is marked as read-only,
+ *     so the connection is only obtained, and routed, when the first statement is executed.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final boolean fallbackToPrimary;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, boolean fallbackToPrimary,
+                                    String lagQuery, Duration maxLag, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size()).mapToObj(index -> new Replica(index, replicas.get(index))).toList();
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setTargetDataSource(new Router());
+        healthCheck.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return Data sources of the primary and the replicas, the primary first
+     */
+    public List<DataSource> getDataSources() {
+        List<DataSource> dataSources = new ArrayList<>(replicas.size() + 1);
+        dataSources.add(primary);
+        replicas.forEach(replica -> dataSources.add(replica.dataSource));
+        return dataSources;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        healthCheck.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Obtain a connection from the primary or a replica, with the credentials of the data source unless a username is given.
+     */
+    private Connection route(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connect(primary, username, password);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return connect(replica.dataSource, username, password);
+            } catch (SQLException ex) {
+                logger.warn("Cannot connect to replica {}: {}", replica.index, ex.getMessage());
+                replica.healthy = false;
+            }
+        }
+        if (!fallbackToPrimary) {
+            throw new SQLException("No healthy replica available for read-only transaction");
+        }
+        return connect(primary, username, password);
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1) && lag(connection) <= maxLagSeconds;
+            } catch (SQLException | RuntimeException ex) {
+                logger.debug("Health check of replica {} failed: {}", replica.index, ex.getMessage());
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                logger.info("Replica {} is {}", replica.index, healthy ? "healthy" : "unhealthy");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    private double lag(Connection connection) throws SQLException {
+        if (!StringUtils.hasText(lagQuery)) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getDouble(1) : 0;
+        }
+    }
+
+    /**
+     * Target of the lazy connections, obtaining them from the primary or a replica.
+     */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(null, null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(username, password);
+        }
+    }
+
+    private static final class Replica {
+        private final int index;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+    }
+}
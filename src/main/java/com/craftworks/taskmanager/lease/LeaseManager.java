@@ -0,0 +1,311 @@
+package com.craftworks.taskmanager.lease;
+
+import com.craftworks.taskmanager.exception.LeaseLostException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases on background jobs, so a job runs on one node at a time when several nodes share the database.
+ * <p>
+ *     A lease is a row in the {@code leases} table with the holding node and an expiry time, acquired with a single upsert
+ *     which only succeeds if the lease is free, expired or already held by this node. Held leases are renewed by a heartbeat
+ *     every {@code taskmanager.lease.heartbeat-interval} milliseconds on a thread of its own, so a long-running job keeps its lease,
+ *     and expire {@code taskmanager.lease.ttl} milliseconds after the last renewal, so the lease of a node which has died is taken over.
+ *     A node considers a lease as held for the time to live measured from before the upsert was sent, which ends before the lease
+ *     expires in the database.
+ * </p>
+ * <p>
+ *     Each acquisition after an expiry increments the fencing token of the lease. A job passes its token to {@link #fence(String, long)}
+ *     in the transaction doing its work, which fails if the lease has changed hands and keeps it from changing hands until the transaction ends,
+ *     so a node which has been paused longer than the time to live cannot commit work of the new holder.
+ * </p>
+ * <p>
+ *     Jobs which can be split are divided into {@code taskmanager.lease.shards} shards with a lease each, and every node holds
+ *     a fair share of the shards of a job, based on the number of live nodes. Every node holds a lease on its own node id for this.
+ *     With {@code taskmanager.lease.enabled=false} every lease is held by this node, e.g. for a single node without a shared database.
+ * </p>
+ */
+@Component
+public class LeaseManager implements DisposableBean {
+
+    private static final String NODE_PREFIX = "node/";
+
+    private static final String ACQUIRE = "INSERT INTO leases AS l (name, owner, fencing_token, expires_at)"
+            + " VALUES (?, ?, 1, now() + ? * interval '1 millisecond')"
+            + " ON CONFLICT (name) DO UPDATE SET owner = excluded.owner, expires_at = excluded.expires_at,"
+            + "  fencing_token = CASE WHEN l.owner = excluded.owner AND l.expires_at > now() THEN l.fencing_token ELSE l.fencing_token + 1 END"
+            + " WHERE l.owner = excluded.owner OR l.expires_at <= now()"
+            + " RETURNING l.fencing_token";
+
+    private static final String RELEASE = "UPDATE leases SET expires_at = now() WHERE name = ? AND owner = ? AND fencing_token = ?";
+
+    private static final String FENCE = "SELECT fencing_token FROM leases"
+            + " WHERE name = ? AND owner = ? AND fencing_token = ? AND expires_at > now() FOR SHARE";
+
+    private static final String COUNT_NODES = "SELECT count(*) FROM leases WHERE name LIKE '" + NODE_PREFIX + "%' AND expires_at > now()";
+
+    private static final String DELETE_DEAD_NODES = "DELETE FROM leases"
+            + " WHERE name LIKE '" + NODE_PREFIX + "%' AND expires_at < now() - interval '1 day'";
+
+    private final Logger logger = LoggerFactory.getLogger(LeaseManager.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long heartbeatMillis;
+    private final int shards;
+    private final Map<String, HeldLease> held = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastShardAcquisition = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+    private volatile int liveNodes = 1;
+
+    @Autowired
+    public LeaseManager(JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${taskmanager.lease.enabled:true}") boolean enabled,
+                        @Value("${taskmanager.lease.node-id:}") String nodeId,
+                        @Value("${taskmanager.lease.ttl:30000}") long ttlMillis,
+                        @Value("${taskmanager.lease.heartbeat-interval:10000}") long heartbeatMillis,
+                        @Value("${taskmanager.lease.shards:8}") int shards) {
+        if (heartbeatMillis >= ttlMillis) {
+            throw new IllegalArgumentException("The lease heartbeat interval must be shorter than the lease time to live");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : defaultNodeId();
+        this.ttlMillis = ttlMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.shards = shards;
+        Gauge.builder("taskmanager.lease.held", held, Map::size)
+                .description("Number of leases held by this node")
+                .register(meterRegistry);
+        Gauge.builder("taskmanager.lease.nodes", this, LeaseManager::getLiveNodes)
+                .description("Number of live nodes sharing the background jobs")
+                .register(meterRegistry);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            heartbeat.scheduleWithFixedDelay(this::renew, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Node id: {}, leases enabled: {}", this.nodeId, enabled);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        held.keySet().forEach(this::release);
+    }
+
+    /**
+     * Acquire a lease, or keep it if it is held already.
+     *
+     * @param name Name of the lease
+     * @return     Fencing token of the lease, empty if the lease is held by another node
+     */
+    public OptionalLong acquire(String name) {
+        if (!enabled) {
+            return OptionalLong.of(0);
+        }
+        HeldLease lease = held.get(name);
+        if (lease != null && lease.isValid()) {
+            return OptionalLong.of(lease.token());
+        }
+        return claim(name);
+    }
+
+    /**
+     * Acquire or renew a lease in the database.
+     *
+     * @return Fencing token of the lease, empty if the lease is held by another node
+     */
+    private OptionalLong claim(String name) {
+        long startNanos = System.nanoTime();
+        List<Long> tokens;
+        try {
+            tokens = jdbcTemplate.queryForList(ACQUIRE, Long.class, name, nodeId, ttlMillis);
+        } catch (DataAccessException ex) {
+            // A lease held already stays valid until its time to live has passed
+            logger.error("A DataAccessException occurred while acquiring lease {}: {}", name, ex.getMessage());
+            return OptionalLong.empty();
+        }
+        if (tokens.isEmpty()) {
+            if (held.remove(name) != null) {
+                logger.warn("Lost lease {} to another node", name);
+            }
+            return OptionalLong.empty();
+        }
+        long token = tokens.get(0);
+        HeldLease previous = held.put(name, new HeldLease(token, startNanos + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        if (previous == null || previous.token() != token) {
+            logger.info("Acquired lease {} with fencing token {}", name, token);
+        }
+        return OptionalLong.of(token);
+    }
+
+    /**
+     * Release a lease held by this node, so another node can take it over right away.
+     *
+     * @param name Name of the lease
+     */
+    public void release(String name) {
+        HeldLease lease = held.remove(name);
+        if (!enabled || lease == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(RELEASE, name, nodeId, lease.token());
+            logger.info("Released lease {}", name);
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while releasing lease {}: {}", name, ex.getMessage());
+        }
+    }
+
+    /**
+     * Check in the current transaction that the lease is still held with the given fencing token.
+     * The lease row is locked until the transaction ends, so the lease cannot be taken over before the work of the transaction is committed.
+     *
+     * @param name  Name of the lease
+     * @param token Fencing token the work has been started with
+     * @throws LeaseLostException if the lease has expired or has been taken over
+     */
+    public void fence(String name, long token) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Fencing lease " + name + " requires a transaction");
+        }
+        if (jdbcTemplate.queryForList(FENCE, Long.class, name, nodeId, token).isEmpty()) {
+            held.remove(name);
+            throw new LeaseLostException("Lease " + name + " with fencing token " + token + " is no longer held");
+        }
+    }
+
+    /**
+     * Acquire this node's share of the shards of a job and release the shards beyond it.
+     * Free shards are only claimed once per heartbeat interval, so the method can be called on every run of a frequent job.
+     *
+     * @param job Name of the job
+     * @return    Fencing token per shard held by this node
+     */
+    public Map<Integer, Long> acquireShards(String job) {
+        TreeMap<Integer, Long> tokens = new TreeMap<>();
+        if (!enabled) {
+            tokens.put(0, 0L);
+            return tokens;
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            HeldLease lease = held.get(shardName(job, shard));
+            if (lease != null && lease.isValid()) {
+                tokens.put(shard, lease.token());
+            }
+        }
+        int share = Math.ceilDiv(shards, liveNodes);
+        while (tokens.size() > share) {
+            int shard = tokens.lastKey();
+            tokens.remove(shard);
+            release(shardName(job, shard));
+        }
+        long now = System.nanoTime();
+        Long last = lastShardAcquisition.get(job);
+        if (tokens.size() < share && (last == null || now - last >= TimeUnit.MILLISECONDS.toNanos(heartbeatMillis))) {
+            lastShardAcquisition.put(job, now);
+            for (int shard = 0; shard < shards && tokens.size() < share; shard++) {
+                if (!tokens.containsKey(shard)) {
+                    int current = shard;
+                    acquire(shardName(job, shard)).ifPresent(token -> tokens.put(current, token));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return Name of the lease on a shard of a job
+     */
+    public static String shardName(String job, int shard) {
+        return job + "/" + shard;
+    }
+
+    /**
+     * @return Number of shards of a splittable job; shard {@code n} covers the tasks whose id modulo the number of shards is {@code n}
+     */
+    public int getShards() {
+        return enabled ? shards : 1;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getLiveNodes() {
+        return liveNodes;
+    }
+
+    /**
+     * Renew the node lease and all held leases, and count the live nodes.
+     */
+    private void renew() {
+        try {
+            claim(NODE_PREFIX + nodeId);
+            for (String name : held.keySet()) {
+                if (!name.equals(NODE_PREFIX + nodeId)) {
+                    claim(name);
+                }
+            }
+            Long nodes = jdbcTemplate.queryForObject(COUNT_NODES, Long.class);
+            liveNodes = nodes == null ? 1 : (int) Math.max(1, nodes);
+            jdbcTemplate.update(DELETE_DEAD_NODES);
+        } catch (RuntimeException ex) {
+            logger.error("An exception occurred while renewing the leases: {}", ex.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Lease held by this node.
+     *
+     * @param token       Fencing token
+     * @param validUntil  Value of {@link System#nanoTime()} until which the lease is held for sure
+     */
+    private record HeldLease(long token, long validUntil) {
+
+        boolean isValid() {
+            return System.nanoTime() - validUntil < 0;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.craftworks.taskmanager.mapper;
 
 import com.craftworks.taskmanager.dto.CreateTaskDto;
 import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.ArchivedTask;
 import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.entity.TaskRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -21,6 +23,7 @@ public interface TaskMapper {
     TaskMapper INSTANCE = Mappers.getMapper(TaskMapper.class);
 
     @Mapping(target = "createdAt", qualifiedByName = "setCreatedAt")
+    @Mapping(target = "version", ignore = true)
     Task createTaskDtoToEntity(CreateTaskDto taskDto, @MappingTarget Task task);
 
     @Named("setCreatedAt")
@@ -29,6 +32,7 @@ public interface TaskMapper {
     }
 
     @Mapping(target = "updatedAt", qualifiedByName = "setUpdatedAt")
+    @Mapping(target = "version", ignore = true)
     Task taskDtoToEntity(TaskDto taskDto, @MappingTarget Task task);
 
     @Named("setUpdatedAt")
@@ -37,5 +41,10 @@ public interface TaskMapper {
     }
 
     TaskDto taskToTaskDto(Task task);
+    TaskDto archivedTaskToTaskDto(ArchivedTask archivedTask);
     List<TaskDto> taskListToTaskDtoList(List<Task> taskList);
+
+    TaskDto taskRowToTaskDto(TaskRow taskRow);
+    Task taskRowToTask(TaskRow taskRow);
+    TaskRow taskToTaskRow(Task task);
 }
@@ -0,0 +1,122 @@
+package com.craftworks.taskmanager.metrics;
+
+import com.craftworks.taskmanager.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Report of the effective performance settings.
+ * <p>
+ *     Once the application is ready, the active profiles, the settings of each connection pool, the properties passed to the
+ *     JDBC driver, the JDBC settings of Hibernate and the schema version are logged, as they have been applied after all
+ *     profiles, environment variables and defaults have been resolved. Passwords are not logged.
+ *     The report is switched off with {@code taskmanager.settings-report.enabled=false}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.settings-report.enabled", havingValue = "true", matchIfMissing = true)
+public class SettingsReport {
+
+    private static final List<String> HIBERNATE_SETTINGS = List.of(
+            "hibernate.hbm2ddl.auto",
+            "hibernate.jdbc.fetch_size",
+            "hibernate.jdbc.batch_size",
+            "hibernate.jdbc.batch_versioned_data",
+            "hibernate.order_inserts",
+            "hibernate.order_updates",
+            "hibernate.query.in_clause_parameter_padding",
+            "hibernate.generate_statistics");
+
+    private final Logger logger = LoggerFactory.getLogger(SettingsReport.class);
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<Flyway> flyway;
+
+    public SettingsReport(Environment environment,
+                          DataSource dataSource,
+                          EntityManagerFactory entityManagerFactory,
+                          ObjectProvider<Flyway> flyway) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flyway = flyway;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        String[] profiles = environment.getActiveProfiles().length > 0 ? environment.getActiveProfiles() : environment.getDefaultProfiles();
+        logger.info("Profiles: {}", String.join(", ", profiles));
+        for (DataSource pool : pools()) {
+            reportPool(pool);
+        }
+        Map<String, Object> properties = entityManagerFactory.getProperties();
+        Map<String, Object> hibernate = new TreeMap<>();
+        for (String setting : HIBERNATE_SETTINGS) {
+            hibernate.put(setting, properties.getOrDefault(setting, "default"));
+        }
+        logger.info("Hibernate: {}", hibernate);
+        reportSchema();
+    }
+
+    private void reportPool(DataSource pool) {
+        HikariDataSource hikari;
+        try {
+            hikari = pool.unwrap(HikariDataSource.class);
+        } catch (SQLException ex) {
+            logger.info("Connection pool: {} is not a Hikari pool", pool.getClass().getName());
+            return;
+        }
+        logger.info("Connection pool {}: maximumPoolSize={}, minimumIdle={}, connectionTimeout={} ms, idleTimeout={} ms,"
+                        + " maxLifetime={} ms, leakDetectionThreshold={} ms, autoCommit={}",
+                hikari.getPoolName(), hikari.getMaximumPoolSize(), hikari.getMinimumIdle(), hikari.getConnectionTimeout(),
+                hikari.getIdleTimeout(), hikari.getMaxLifetime(), hikari.getLeakDetectionThreshold(), hikari.isAutoCommit());
+        Map<Object, Object> driverProperties = new TreeMap<>(hikari.getDataSourceProperties());
+        driverProperties.remove("password");
+        logger.info("JDBC driver of pool {}: url={}, properties={}",
+                hikari.getPoolName(), String.valueOf(hikari.getJdbcUrl()).replaceAll("(?i)password=[^&]*", "password=***"), driverProperties);
+    }
+
+    private void reportSchema() {
+        Flyway migrations = flyway.getIfAvailable();
+        if (migrations == null) {
+            logger.info("Schema: Flyway is disabled");
+            return;
+        }
+        MigrationInfo current = migrations.info().current();
+        logger.info("Schema: version {} ({}), {} pending migrations",
+                current == null ? "none" : current.getVersion(),
+                current == null ? "empty" : current.getDescription(),
+                migrations.info().pending().length);
+    }
+
+    /**
+     * @return Data sources of the primary and the replicas, or the single data source
+     */
+    private List<DataSource> pools() {
+        try {
+            if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+                return dataSource.unwrap(ReplicaRoutingDataSource.class).getDataSources();
+            }
+        } catch (SQLException ex) {
+            logger.debug("Cannot unwrap data source: {}", ex.getMessage());
+        }
+        return List.of(dataSource);
+    }
+}
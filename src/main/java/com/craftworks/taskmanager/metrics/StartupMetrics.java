@@ -0,0 +1,69 @@
+package com.craftworks.taskmanager.metrics;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NativeDetector;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurement of the startup time.
+ * <p>
+ *     The time from the start of the JVM until the application is ready to serve requests is logged together with the startup mode
+ *     and published as {@code taskmanager.startup.time}. Unlike {@code application.ready.time}, it includes the time the JVM needs
+ *     to load the classes of Spring Boot itself, which is what class-data sharing speeds up.
+ * </p>
+ * <p>
+ *     With {@code taskmanager.startup.exit-on-ready=true} the application exits as soon as it is ready,
+ *     which makes it a training run for a class-data sharing archive.
+ * </p>
+ */
+@Component
+public class StartupMetrics {
+
+    private final Logger logger = LoggerFactory.getLogger(StartupMetrics.class);
+    private final MeterRegistry meterRegistry;
+    private final boolean exitOnReady;
+
+    public StartupMetrics(MeterRegistry meterRegistry,
+                          @Value("${taskmanager.startup.exit-on-ready:false}") boolean exitOnReady) {
+        this.meterRegistry = meterRegistry;
+        this.exitOnReady = exitOnReady;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("taskmanager.startup.time", () -> startupMillis, TimeUnit.MILLISECONDS)
+                .description("Time from the start of the JVM until the application is ready")
+                .register(meterRegistry);
+        logger.info("Ready {} ms after JVM start (native image: {}, AOT: {}, CDS archive: {})",
+                startupMillis, NativeDetector.inNativeImage(), AotDetector.useGeneratedArtifacts(), sharedArchiveFile());
+        if (exitOnReady) {
+            logger.info("Exiting after startup");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    private static String sharedArchiveFile() {
+        if (NativeDetector.inNativeImage()) {
+            return "none";
+        }
+        try {
+            String file = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption("SharedArchiveFile").getValue();
+            return file.isEmpty() ? "default" : file;
+        } catch (RuntimeException ex) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.craftworks.taskmanager.metrics;
+
+import com.craftworks.taskmanager.exception.TaskAccessException;
+import com.craftworks.taskmanager.exception.TaskNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the task exceptions thrown by the service layer.
+ * <p>
+ *     An exception is counted once, when it leaves the outermost service call, i.e. the call of the controller or the scheduler,
+ *     even if it has passed through the proxies of several services calling each other.
+ * </p>
+ */
+@Aspect
+@Component
+public class TaskExceptionMetrics {
+
+    private final Counter taskNotFound;
+    private final Counter taskAccess;
+
+    /**
+     * Number of service calls in progress on the current thread.
+     */
+    private final ThreadLocal<int[]> serviceCalls = ThreadLocal.withInitial(() -> new int[1]);
+
+    public TaskExceptionMetrics(MeterRegistry meterRegistry) {
+        this.taskNotFound = Counter.builder("taskmanager.exceptions")
+                .description("Exceptions thrown by the task services")
+                .tag("exception", TaskNotFoundException.class.getSimpleName())
+                .register(meterRegistry);
+        this.taskAccess = Counter.builder("taskmanager.exceptions")
+                .description("Exceptions thrown by the task services")
+                .tag("exception", TaskAccessException.class.getSimpleName())
+                .register(meterRegistry);
+    }
+
+    @Around("within(com.craftworks.taskmanager.service..*)")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] calls = serviceCalls.get();
+        calls[0]++;
+        try {
+            return joinPoint.proceed();
+        } catch (TaskNotFoundException ex) {
+            if (calls[0] == 1) {
+                taskNotFound.increment();
+            }
+            throw ex;
+        } catch (TaskAccessException ex) {
+            if (calls[0] == 1) {
+                taskAccess.increment();
+            }
+            throw ex;
+        } finally {
+            calls[0]--;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.craftworks.taskmanager.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the methods of the task mapper.
+ * <p>
+ *     The mapper implementation is generated by MapStruct, so it cannot be annotated with {@code @Timed}.
+ *     The timer of each method is registered on its first call and reused afterwards, so the mapping path does not look up the registry.
+ * </p>
+ */
+@Aspect
+@Component
+public class TaskMapperMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TaskMapperMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.craftworks.taskmanager.mapper.TaskMapper+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sample.stop(timers.computeIfAbsent(joinPoint.getSignature().getName(), this::timer));
+        }
+    }
+
+    private Timer timer(String method) {
+        return Timer.builder("taskmanager.mapper")
+                .description("Time spent mapping tasks")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
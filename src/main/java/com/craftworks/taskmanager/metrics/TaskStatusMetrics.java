@@ -0,0 +1,26 @@
+package com.craftworks.taskmanager.metrics;
+
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.service.TaskStatsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges for the number of tasks per status.
+ * <p>
+ *     The gauges read the counters which {@link TaskStatsService} maintains from the task events, so a scrape never queries the database.
+ * </p>
+ */
+@Component
+public class TaskStatusMetrics {
+
+    public TaskStatusMetrics(TaskStatsService taskStatsService, MeterRegistry meterRegistry) {
+        for (Status status : Status.values()) {
+            Gauge.builder("taskmanager.tasks", taskStatsService, service -> service.getCount(status))
+                    .description("Number of tasks per status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.craftworks.taskmanager.outbox;
+
+import com.craftworks.taskmanager.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Sink writing the task events to the {@code taskmanager.outbox} logger, one JSON document per line.
+ * The logger can be routed to its own file by the logging configuration.
+ */
+public class LoggingTaskEventSink implements TaskEventSink {
+
+    private final Logger logger = LoggerFactory.getLogger("taskmanager.outbox");
+
+    @Override
+    public void send(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            logger.info("{} {}", event.getId(), event.getPayload());
+        }
+    }
+}
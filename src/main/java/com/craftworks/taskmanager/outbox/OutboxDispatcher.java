@@ -0,0 +1,128 @@
+package com.craftworks.taskmanager.outbox;
+
+import com.craftworks.taskmanager.entity.OutboxEvent;
+import com.craftworks.taskmanager.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher of the task events in the outbox.
+ * <p>
+ *     The outbox is drained in batches of the oldest due events, each batch in its own transaction.
+ *     The events of a batch stay locked while they are sent to the {@link TaskEventSink}, and are deleted once the sink has accepted them.
+ *     If the sink fails, the events are retried with exponential backoff.
+ *     Without a {@link TaskEventSink} bean, the events are sent to a {@link LoggingTaskEventSink}.
+ *     The age of the oldest event in the outbox is published as {@code taskmanager.outbox.lag}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private final OutboxEventRepository outboxEventRepository;
+    private final TaskEventSink taskEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter dispatchedEvents;
+    private final Counter failedEvents;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Autowired
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ObjectProvider<TaskEventSink> taskEventSink,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${taskmanager.outbox.batch-size:500}") int batchSize,
+                            @Value("${taskmanager.outbox.retry.initial-backoff:1000}") long initialBackoff,
+                            @Value("${taskmanager.outbox.retry.max-backoff:300000}") long maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.taskEventSink = taskEventSink.getIfAvailable(LoggingTaskEventSink::new);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.initialBackoff = Duration.ofMillis(initialBackoff);
+        this.maxBackoff = Duration.ofMillis(maxBackoff);
+        this.dispatchedEvents = Counter.builder("taskmanager.outbox.dispatched")
+                .description("Number of task events dispatched from the outbox")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("taskmanager.outbox.failed")
+                .description("Number of failed attempts to dispatch a task event from the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("taskmanager.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest task event in the outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dispatch due events until the outbox has no more full batches of due events.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.outbox.poll-interval:1000}")
+    public void dispatch() {
+        try {
+            int dispatched;
+            do {
+                dispatched = transactionTemplate.execute(status -> dispatchBatch());
+            } while (dispatched == batchSize);
+
+            LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        } catch (DataAccessException | TransactionException ex) {
+            logger.error("A DataAccessException occurred while dispatching the outbox: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @return Number of dispatched events
+     */
+    private int dispatchBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockDueEvents(LocalDateTime.now(), batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            taskEventSink.send(events);
+        } catch (Exception ex) {
+            logger.error("Failed to dispatch {} task events: {}", events.size(), ex.getMessage());
+            failedEvents.increment(events.size());
+            String error = String.valueOf(ex.getMessage());
+            for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+                event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            }
+            return 0;
+        }
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        dispatchedEvents.increment(events.size());
+        logger.debug("Dispatched {} task events", events.size());
+        return events.size();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
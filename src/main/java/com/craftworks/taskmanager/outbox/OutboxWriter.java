@@ -0,0 +1,83 @@
+package com.craftworks.taskmanager.outbox;
+
+import com.craftworks.taskmanager.dto.TaskEventDto;
+import com.craftworks.taskmanager.entity.OutboxEvent;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writer of task events into the outbox.
+ * <p>
+ *     The listener runs right before the JPA transaction of the task change commits, so the event is inserted, and batched by Hibernate,
+ *     together with the task and is rolled back with it. Events published outside of a JPA transaction are ignored by the listener:
+ *     the reactive API writes its events with {@link #write(TaskEvent)} in its own R2DBC transaction instead, and publishes them
+ *     once that transaction has committed.
+ * </p>
+ */
+@Component
+public class OutboxWriter {
+
+    private static final String INSERT = "INSERT INTO task_outbox (id, created_at, type, task_id, payload, attempts, next_attempt_at)"
+            + " VALUES (nextval('task_outbox_seq'), :createdAt, :type, :taskId, :payload, 0, :nextAttemptAt)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, R2dbcEntityTemplate r2dbcEntityTemplate, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTaskEvent(TaskEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        LocalDateTime now = LocalDateTime.now();
+        outboxEvent.setCreatedAt(now);
+        outboxEvent.setNextAttemptAt(now);
+        outboxEvent.setType(event.type());
+        outboxEvent.setTaskId(event.taskId());
+        outboxEvent.setPayload(payload(event));
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    /**
+     * Insert a task event into the outbox through R2DBC, in the R2DBC transaction of the subscriber if there is one.
+     *
+     * @param event Change of a task
+     * @return      Completion of the insert
+     */
+    public Mono<Void> write(TaskEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        return Mono.fromCallable(() -> payload(event))
+                .flatMap(payload -> r2dbcEntityTemplate.getDatabaseClient()
+                        .sql(INSERT)
+                        .bind("createdAt", now)
+                        .bind("nextAttemptAt", now)
+                        .bind("type", event.type().name())
+                        .bind("taskId", event.taskId())
+                        .bind("payload", payload)
+                        .then());
+    }
+
+    private String payload(TaskEvent event) {
+        try {
+            return objectMapper.writeValueAsString(TaskEventDto.of(event));
+        } catch (JsonProcessingException ex) {
+            // Fail the change rather than losing its event
+            throw new IllegalStateException("Cannot serialize event of task with id: " + event.taskId(), ex);
+        }
+    }
+}
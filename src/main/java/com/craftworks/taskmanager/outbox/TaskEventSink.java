@@ -0,0 +1,24 @@
+package com.craftworks.taskmanager.outbox;
+
+import com.craftworks.taskmanager.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the task events dispatched from the outbox.
+ * <p>
+ *     Events are delivered at least once: if sending a batch fails, the whole batch is sent again later,
+ *     so consumers have to tolerate duplicates, e.g. by the id of the event.
+ *     Declaring a bean of this type replaces the default {@link LoggingTaskEventSink}.
+ * </p>
+ */
+public interface TaskEventSink {
+
+    /**
+     * Send a batch of events, in the order they have been written.
+     *
+     * @param events     Events to be sent
+     * @throws Exception If the batch could not be sent and has to be retried
+     */
+    void send(List<OutboxEvent> events) throws Exception;
+}
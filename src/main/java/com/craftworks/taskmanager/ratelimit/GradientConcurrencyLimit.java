@@ -0,0 +1,118 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit of the number of requests in flight, derived from the observed latency.
+ * <p>
+ *     The limit follows the gradient between the long-term average latency and the latency of the latest request:
+ *     while requests are as fast as usual, the limit grows by the square root of the limit, which leaves room for a small queue;
+ *     when requests become slower because they start to queue for threads or connections, the limit shrinks by up to half.
+ *     Requests beyond the limit are rejected immediately instead of waiting, so the latency of the accepted requests stays flat.
+ * </p>
+ * <p>
+ *     The limit only grows while at least half of it is in use, so an idle application does not drift to the maximum.
+ *     The long-term average follows permanent changes of the latency, e.g. after a deployment, so they do not keep the limit
+ *     at its minimum. It is decayed faster when requests become fast again after a period of overload.
+ * </p>
+ */
+public class GradientConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double LONG_RTT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double longRttFactor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    /**
+     * @param initialLimit Limit before the first latency has been observed
+     * @param minLimit     Lower bound of the limit
+     * @param maxLimit     Upper bound of the limit
+     * @param tolerance    Factor by which the latency may exceed the long-term average before the limit shrinks
+     * @param window       Number of requests the long-term average latency is taken over
+     */
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, int window) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1 || window < 1) {
+            throw new IllegalArgumentException("Invalid concurrency limit: min " + minLimit + ", max " + maxLimit
+                    + ", tolerance " + tolerance + ", window " + window);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.longRttFactor = 2d / (window + 1);
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Take a slot for a request if fewer requests than the limit are in flight.
+     *
+     * @return Whether the request may proceed; if so, the slot has to be released with one of the release methods
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release the slot of a request and adjust the limit to its latency.
+     *
+     * @param rttNanos Latency of the request in nanoseconds
+     */
+    public void release(long rttNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBeforeRelease);
+    }
+
+    /**
+     * Release the slot of a request whose latency says nothing about the load, e.g. a request which continues asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return Current limit of requests in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlight) {
+        double rtt = Math.max(1, rttNanos);
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * longRttFactor;
+        if (longRtt / rtt > 2) {
+            // Recover quickly from a period of high latency
+            longRtt *= LONG_RTT_DECAY;
+        }
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, tolerance * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
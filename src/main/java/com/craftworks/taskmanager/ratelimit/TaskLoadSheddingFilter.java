@@ -0,0 +1,146 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Filter rejecting requests to the task API early when a client or the application is overloaded.
+ * <p>
+ *     A request is rejected with {@code 429 Too Many Requests} if its client has exceeded its rate or all clients together
+ *     have exceeded the global rate, and with {@code 503 Service Unavailable} if more requests are in flight than the
+ *     adaptive concurrency limit allows. Both responses carry a {@code Retry-After} header.
+ *     Rejected requests never reach a request handler or the connection pool, so they cost almost nothing.
+ *     Rejections are counted by {@code taskmanager.requests.rejected} per reason.
+ * </p>
+ */
+public class TaskLoadSheddingFilter extends OncePerRequestFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(TaskLoadSheddingFilter.class);
+    private final TokenBucket globalBucket;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Supplier<TokenBucket> clientBucketFactory;
+    private final GradientConcurrencyLimit concurrencyLimit;
+    private final String clientHeader;
+    private final Duration shedRetryAfter;
+    private final Counter clientRejections;
+    private final Counter globalRejections;
+    private final Counter concurrencyRejections;
+
+    /**
+     * @param globalBucket        Bucket shared by all clients
+     * @param clientBuckets       Buckets of the clients by client id
+     * @param clientBucketFactory Factory of the bucket of a new client
+     * @param concurrencyLimit    Limit of the requests in flight
+     * @param clientHeader        Request header identifying the client, the remote address is used if empty or missing
+     * @param shedRetryAfter      Retry-After of requests rejected by the concurrency limit
+     * @param meterRegistry       Registry of the rejection metrics
+     */
+    public TaskLoadSheddingFilter(TokenBucket globalBucket,
+                                  Cache<String, TokenBucket> clientBuckets,
+                                  Supplier<TokenBucket> clientBucketFactory,
+                                  GradientConcurrencyLimit concurrencyLimit,
+                                  String clientHeader,
+                                  Duration shedRetryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.globalBucket = globalBucket;
+        this.clientBuckets = clientBuckets;
+        this.clientBucketFactory = clientBucketFactory;
+        this.concurrencyLimit = concurrencyLimit;
+        this.clientHeader = clientHeader;
+        this.shedRetryAfter = shedRetryAfter;
+        this.clientRejections = rejections(meterRegistry, "client-rate");
+        this.globalRejections = rejections(meterRegistry, "global-rate");
+        this.concurrencyRejections = rejections(meterRegistry, "concurrency");
+        Gauge.builder("taskmanager.requests.concurrency.limit", concurrencyLimit, GradientConcurrencyLimit::getLimit)
+                .description("Adaptive limit of task API requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("taskmanager.requests.concurrency.in-flight", concurrencyLimit, GradientConcurrencyLimit::getInFlight)
+                .description("Task API requests in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // The client bucket is checked first, so a client over its rate does not use up tokens of the other clients
+        String client = client(request);
+        long waitNanos = clientBuckets.get(client, key -> clientBucketFactory.get()).tryConsume();
+        if (waitNanos > 0) {
+            logger.debug("Rejecting request of client {} exceeding its rate", client);
+            clientRejections.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos));
+            return;
+        }
+        waitNanos = globalBucket.tryConsume();
+        if (waitNanos > 0) {
+            logger.debug("Rejecting request of client {} exceeding the global rate", client);
+            globalRejections.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos));
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            logger.debug("Shedding request of client {}, {} requests in flight", client, concurrencyLimit.getInFlight());
+            concurrencyRejections.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfter);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = !request.isAsyncStarted();
+        } finally {
+            if (completed) {
+                concurrencyLimit.release(System.nanoTime() - start);
+            } else {
+                // Failed requests and streams continuing asynchronously do not tell how long a request takes
+                concurrencyLimit.release();
+            }
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, Duration retryAfter) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(retryAfter)));
+    }
+
+    /**
+     * @return Value of the Retry-After header, the wait rounded up to whole seconds and at least one second
+     */
+    static long retryAfterSeconds(Duration retryAfter) {
+        return Math.max(1, retryAfter.toSeconds() + (retryAfter.toNanosPart() > 0 ? 1 : 0));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("taskmanager.requests.rejected")
+                .description("Task API requests rejected by the rate and concurrency limits")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
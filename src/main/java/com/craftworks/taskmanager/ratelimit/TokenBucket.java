@@ -0,0 +1,56 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of requests.
+ * <p>
+ *     The bucket holds up to {@code capacity} tokens and is refilled continuously at {@code tokensPerSecond}.
+ *     Every request takes one token, so bursts up to the capacity pass while the long-term rate is bounded by the refill rate.
+ *     The tokens are refilled lazily when a token is taken, so idle buckets cost nothing.
+ * </p>
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param capacity        Maximum number of tokens
+     * @param tokensPerSecond Refill rate
+     * @param nanoTime        Source of the current time in nanoseconds, {@link System#nanoTime()} outside of tests
+     */
+    public TokenBucket(long capacity, double tokensPerSecond, LongSupplier nanoTime) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid token bucket: capacity " + capacity + ", rate " + tokensPerSecond);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * Take a token from the bucket.
+     *
+     * @return 0 if a token has been taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryConsume() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,12 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.entity.ArchivedTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the ArchivedTask entity.
+ */
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+}
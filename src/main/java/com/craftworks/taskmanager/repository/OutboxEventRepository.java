@@ -0,0 +1,28 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the oldest events which are due for dispatch.
+     * Events locked by another dispatcher are skipped, so several instances can dispatch concurrently.
+     */
+    @Query(value = "SELECT * FROM task_outbox WHERE next_attempt_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> lockDueEvents(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("select min(e.createdAt) from OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
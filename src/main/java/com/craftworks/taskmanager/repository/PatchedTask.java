@@ -0,0 +1,12 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+
+/**
+ * State of a task before and after a patch.
+ *
+ * @param previous Task before the patch
+ * @param patched  Task after the patch
+ */
+public record PatchedTask(TaskDto previous, TaskDto patched) {
+}
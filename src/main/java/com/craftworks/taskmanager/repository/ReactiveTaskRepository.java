@@ -0,0 +1,23 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.entity.TaskRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository for the rows of the tasks table, backed by R2DBC.
+ */
+@Repository
+public interface ReactiveTaskRepository extends R2dbcRepository<TaskRow, Long> {
+
+    /**
+     * Find an archived task by id, read with the columns it shares with the tasks table.
+     *
+     * @param id Id of the task
+     * @return   Archived task with the given id
+     */
+    @Query("SELECT * FROM tasks_archive WHERE id = :id")
+    Mono<TaskRow> findArchivedById(Long id);
+}
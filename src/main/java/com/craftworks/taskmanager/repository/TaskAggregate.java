@@ -0,0 +1,22 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the number of tasks with a status, priority, due date and creation day.
+ */
+public interface TaskAggregate {
+
+    Status getStatus();
+
+    Priority getPriority();
+
+    LocalDate getDueDate();
+
+    LocalDate getCreatedDay();
+
+    long getCount();
+}
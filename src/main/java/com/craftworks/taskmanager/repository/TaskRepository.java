@@ -1,8 +1,12 @@
 package com.craftworks.taskmanager.repository;
 
+import com.craftworks.taskmanager.dto.TaskDto;
 import com.craftworks.taskmanager.entity.Task;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
@@ -13,7 +17,14 @@ import java.util.Optional;
  * Repository for the Task entity.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>, TaskRepositoryCustom {
+
+    /**
+     * Select clause constructing a TaskDto from the task {@code t}, in the order of the fields of TaskDto.
+     */
+    String SELECT_TASK_DTO = "select new com.craftworks.taskmanager.dto.TaskDto(t.id, t.createdAt, t.updatedAt, t.dueDate,"
+            + " t.resolvedAt, t.title, t.description, t.priority, t.status, t.version)";
+
     @NonNull
     List<Task> findAll(@NonNull Sort sort);
     @NonNull
@@ -22,4 +33,27 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     <S extends Task> S save(@NonNull S task);
 
     void deleteById(@NonNull Long id);
+
+    /**
+     * Find all tasks as TaskDtos, without loading them into the persistence context.
+     *
+     * @param sort Sort order of the tasks
+     * @return     All tasks
+     */
+    @Query(SELECT_TASK_DTO + " from Task t")
+    List<TaskDto> findAllTaskDtos(Sort sort);
+
+    /**
+     * Find a task by id as TaskDto, without loading it into the persistence context.
+     *
+     * @param id Id of the task
+     * @return   Task with the given id
+     */
+    @Query(SELECT_TASK_DTO + " from Task t where t.id = :id")
+    Optional<TaskDto> findTaskDtoById(@Param("id") Long id);
+
+    @Query("select t.status as status, t.priority as priority, t.dueDate as dueDate,"
+            + " cast(t.createdAt as LocalDate) as createdDay, count(t) as count from Task t"
+            + " group by t.status, t.priority, t.dueDate, cast(t.createdAt as LocalDate)")
+    List<TaskAggregate> aggregate();
 }
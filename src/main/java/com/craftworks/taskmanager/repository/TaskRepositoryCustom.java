@@ -0,0 +1,76 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.dto.PatchTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom queries for the Task entity which are not covered by Spring Data.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Find the first tasks matching the specification as TaskDtos without counting all matches.
+     * <p>
+     *     The columns are selected directly into TaskDtos, so no entities are loaded into the persistence context.
+     * </p>
+     *
+     * @param spec  Specification the tasks have to match
+     * @param sort  Sort order of the tasks
+     * @param limit Maximum number of tasks
+     * @return      Matching tasks
+     */
+    List<TaskDto> findAllTaskDtos(Specification<Task> spec, Sort sort, int limit);
+
+    /**
+     * Stream all tasks matching the specification as TaskDtos.
+     * <p>
+     *     Rows are fetched from the database cursor in chunks of the fetch size instead of being loaded at once.
+     *     The columns are selected directly into TaskDtos, so the persistence context does not grow with the table.
+     *     The stream has to be consumed and closed inside a transaction.
+     * </p>
+     *
+     * @param spec Specification the tasks have to match
+     * @param sort Sort order of the tasks
+     * @return     Stream of matching tasks
+     */
+    Stream<TaskDto> streamTaskDtos(Specification<Task> spec, Sort sort);
+
+    /**
+     * Update only the fields of a task which are set in the patch, without loading the task.
+     * <p>
+     *     A single statement locks the task, updates it and returns the previous and the patched state.
+     *     The update time is set and the version is incremented in the same statement.
+     *     If an expected version is given, the task is only updated if it still has this version.
+     * </p>
+     *
+     * @param id              Id of the task to be updated
+     * @param patch           Fields to be updated
+     * @param expectedVersion Version the task must have, may be null
+     * @return                Previous and patched state of the task, empty if the task does not exist or has another version
+     */
+    Optional<PatchedTask> patch(Long id, PatchTaskDto patch, Long expectedVersion);
+
+    /**
+     * Search tasks by their title and description.
+     * <p>
+     *     The query is given in web search syntax, e.g. {@code "fix bug" -urgent}, and matched against the
+     *     full-text search index. Tasks are ranked by relevance, matches in the title weigh more than matches in the description.
+     *     Only the first candidates found by the index are ranked, so the cost of a search is bounded by the number of candidates,
+     *     not by the number of matches. The columns are selected directly into TaskDtos.
+     * </p>
+     *
+     * @param query      Search query
+     * @param candidates Maximum number of matches which are ranked
+     * @param offset     Number of ranked tasks to skip
+     * @param limit      Maximum number of tasks
+     * @return           Matching tasks, most relevant first
+     */
+    List<TaskDto> search(String query, int candidates, int offset, int limit);
+}
@@ -0,0 +1,206 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.config.SearchConfig;
+import com.craftworks.taskmanager.dto.PatchTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.sqm.NullPrecedence;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Criteria based implementation of {@link TaskRepositoryCustom}.
+ */
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String[] TASK_COLUMN_NAMES = {
+            "id", "created_at", "updated_at", "due_date", "resolved_at", "title", "description", "priority", "status", "version"};
+
+    private static final Class<?>[] TASK_COLUMN_TYPES = {
+            Long.class, LocalDateTime.class, LocalDateTime.class, LocalDate.class, LocalDateTime.class,
+            String.class, String.class, String.class, String.class, Long.class};
+
+    private static final String TASK_COLUMNS = String.join(", ", TASK_COLUMN_NAMES);
+
+    /**
+     * Only the first candidates found by the index are ranked, so ranking a common term does not read every match.
+     */
+    private static final String SEARCH_QUERY = "SELECT " + TASK_COLUMNS + " FROM ("
+            + " SELECT " + TASK_COLUMNS + ", ts_rank(t.search_vector, q) AS rank FROM tasks t,"
+            + " websearch_to_tsquery('" + SearchConfig.TEXT_SEARCH_CONFIGURATION + "', :query) q"
+            + " WHERE t.search_vector @@ q"
+            + " LIMIT :candidates) c"
+            + " ORDER BY rank DESC, id"
+            + " OFFSET :offset LIMIT :limit";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskDto> findAllTaskDtos(Specification<Task> spec, Sort sort, int limit) {
+        return createTaskDtoQuery(spec, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TaskDto> streamTaskDtos(Specification<Task> spec, Sort sort) {
+        return createTaskDtoQuery(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<PatchedTask> patch(Long id, PatchTaskDto patch, Long expectedVersion) {
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        assign(assignments, parameters, "due_date", patch.getDueDate());
+        assign(assignments, parameters, "resolved_at", patch.getResolvedAt());
+        assign(assignments, parameters, "title", patch.getTitle());
+        assign(assignments, parameters, "description", patch.getDescription());
+        assign(assignments, parameters, "priority", patch.getPriority() == null ? null : patch.getPriority().name());
+        assign(assignments, parameters, "status", patch.getStatus() == null ? null : patch.getStatus().name());
+        assign(assignments, parameters, "updated_at", LocalDateTime.now());
+        assignments.add("version = t.version + 1");
+        parameters.put("id", id);
+
+        String sql = "WITH previous AS (SELECT " + TASK_COLUMNS + " FROM tasks WHERE id = :id FOR UPDATE)"
+                + " UPDATE tasks t SET " + String.join(", ", assignments)
+                + " FROM previous p WHERE t.id = p.id"
+                + (expectedVersion == null ? "" : " AND p.version = :expectedVersion")
+                + " RETURNING " + taskColumns("t.", "") + ", " + taskColumns("p.", "previous_");
+        if (expectedVersion != null) {
+            parameters.put("expectedVersion", expectedVersion);
+        }
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        addTaskScalars(query, "");
+        addTaskScalars(query, "previous_");
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            query.setParameter(parameter.getKey(), parameter.getValue());
+        }
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new PatchedTask(toTaskDto(row, TASK_COLUMN_NAMES.length), toTaskDto(row, 0)))
+                .findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskDto> search(String query, int candidates, int offset, int limit) {
+        NativeQuery<Object[]> search = entityManager.createNativeQuery(SEARCH_QUERY).unwrap(NativeQuery.class);
+        addTaskScalars(search, "");
+        List<Object[]> rows = search
+                .setParameter("query", query)
+                .setParameter("candidates", candidates)
+                .setParameter("offset", offset)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<TaskDto> taskDtos = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            taskDtos.add(toTaskDto(row, 0));
+        }
+        return taskDtos;
+    }
+
+    /**
+     * Add the assignment of a column to a native update if the patch sets it.
+     */
+    private static void assign(List<String> assignments, Map<String, Object> parameters, String column, Object value) {
+        if (value != null) {
+            assignments.add(column + " = :" + column);
+            parameters.put(column, value);
+        }
+    }
+
+    /**
+     * @return Columns of a task of the given table alias, selected with the given prefix
+     */
+    private static String taskColumns(String table, String prefix) {
+        List<String> columns = new ArrayList<>(TASK_COLUMN_NAMES.length);
+        for (String column : TASK_COLUMN_NAMES) {
+            columns.add(table + column + " AS " + prefix + column);
+        }
+        return String.join(", ", columns);
+    }
+
+    /**
+     * Declare the types of the columns of a task with the given prefix, in the order of the constructor parameters of TaskDto.
+     * Enums are read as their names.
+     */
+    private static void addTaskScalars(NativeQuery<Object[]> query, String prefix) {
+        for (int i = 0; i < TASK_COLUMN_NAMES.length; i++) {
+            query.addScalar(prefix + TASK_COLUMN_NAMES[i], TASK_COLUMN_TYPES[i]);
+        }
+    }
+
+    /**
+     * Map the columns of a task starting at the given position of a row to a TaskDto.
+     */
+    private static TaskDto toTaskDto(Object[] row, int from) {
+        return new TaskDto((Long) row[from], (LocalDateTime) row[from + 1], (LocalDateTime) row[from + 2],
+                (LocalDate) row[from + 3], (LocalDateTime) row[from + 4], (String) row[from + 5], (String) row[from + 6],
+                row[from + 7] == null ? null : Priority.valueOf((String) row[from + 7]),
+                row[from + 8] == null ? null : Status.valueOf((String) row[from + 8]),
+                (Long) row[from + 9]);
+    }
+
+    /**
+     * Create a query selecting the columns of the matching tasks into TaskDtos,
+     * in the order of the constructor parameters of TaskDto.
+     */
+    private TypedQuery<TaskDto> createTaskDtoQuery(Specification<Task> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDto> query = cb.createQuery(TaskDto.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(cb.construct(TaskDto.class,
+                        root.get("id"), root.get("createdAt"), root.get("updatedAt"), root.get("dueDate"),
+                        root.get("resolvedAt"), root.get("title"), root.get("description"), root.get("priority"),
+                        root.get("status"), root.get("version")))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Convert the sort order into criteria orders, including the null handling,
+     * which {@link QueryUtils#toOrders(Sort, jakarta.persistence.criteria.From, CriteriaBuilder)} ignores.
+     */
+    private static List<Order> toOrders(Sort sort, Root<Task> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order sortOrder : sort) {
+            JpaOrder order = (JpaOrder) QueryUtils.toOrders(Sort.by(sortOrder), root, cb).get(0);
+            switch (sortOrder.getNullHandling()) {
+                case NULLS_FIRST -> order.nullPrecedence(NullPrecedence.FIRST);
+                case NULLS_LAST -> order.nullPrecedence(NullPrecedence.LAST);
+                case NATIVE -> { }
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,136 @@
+package com.craftworks.taskmanager.repository;
+
+import com.craftworks.taskmanager.dto.TaskCursor;
+import com.craftworks.taskmanager.dto.TaskFilterDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.enumeration.TaskSortField;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications for querying the Task entity.
+ * <p>
+ *     The predicates are built to match the composite indexes declared on the Task entity,
+ *     so filtering by status, priority and due date results in index range scans.
+ * </p>
+ */
+public final class TaskSpecifications {
+
+    /**
+     * Cursor value of a task without value of the sort field.
+     */
+    private static final String NULL_VALUE = "null";
+
+    private TaskSpecifications() {
+    }
+
+    /**
+     * Specification matching all tasks which satisfy the given filter.
+     *
+     * @param filter Filter to apply
+     * @return       Specification for the filter
+     */
+    public static Specification<Task> matching(TaskFilterDto filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getPriority() != null) {
+                predicates.add(cb.equal(root.get("priority"), filter.getPriority()));
+            }
+            if (filter.getDueFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dueDate"), filter.getDueFrom()));
+            }
+            if (filter.getDueTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dueDate"), filter.getDueTo()));
+            }
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), filter.getCreatedTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Specification matching all tasks sorted after the given keyset cursor.
+     *
+     * @param cursor    Cursor of the last task of the previous page
+     * @param sortField Field the tasks are sorted by
+     * @param direction Direction the tasks are sorted in
+     * @return          Specification for the keyset
+     * @throws IllegalArgumentException if the cursor value does not match the sort field
+     */
+    public static Specification<Task> after(TaskCursor cursor, TaskSortField sortField, Sort.Direction direction) {
+        try {
+            return switch (sortField) {
+                case TITLE -> after(sortField, cursor.value(), cursor.id(), direction);
+                case CREATED_AT -> after(sortField, LocalDateTime.parse(cursor.value()), cursor.id(), direction);
+                case DUE_DATE -> afterDueDate(NULL_VALUE.equals(cursor.value()) ? null : LocalDate.parse(cursor.value()), cursor.id(), direction);
+            };
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Cursor does not match sort field " + sortField.getProperty() + ": " + cursor);
+        }
+    }
+
+    /**
+     * Sort order matching the keyset of the given sort field.
+     * The id is used as tie-breaker, so the order is total.
+     * Tasks without due date are sorted as if their due date was later than all others, like PostgreSQL does by default,
+     * so both directions can be read from the due date indexes.
+     */
+    public static Sort sort(TaskSortField sortField, Sort.Direction direction) {
+        if (sortField == TaskSortField.DUE_DATE) {
+            Sort.NullHandling nullHandling = direction.isAscending() ? Sort.NullHandling.NULLS_LAST : Sort.NullHandling.NULLS_FIRST;
+            return Sort.by(new Sort.Order(direction, sortField.getProperty(), nullHandling), new Sort.Order(direction, "id"));
+        }
+        return Sort.by(direction, sortField.getProperty(), "id");
+    }
+
+    /**
+     * Keyset of the due date, where tasks without due date form a bucket after all due dates, ordered by their id.
+     */
+    private static Specification<Task> afterDueDate(LocalDate dueDate, Long id, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Path<LocalDate> path = root.get(TaskSortField.DUE_DATE.getProperty());
+            Path<Long> idPath = root.get("id");
+            if (direction.isAscending()) {
+                if (dueDate == null) {
+                    return cb.and(cb.isNull(path), cb.greaterThan(idPath, id));
+                }
+                return cb.or(after(root, cb, path, dueDate, id, direction), cb.isNull(path));
+            }
+            if (dueDate == null) {
+                return cb.or(cb.and(cb.isNull(path), cb.lessThan(idPath, id)), cb.isNotNull(path));
+            }
+            return after(root, cb, path, dueDate, id, direction);
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Specification<Task> after(TaskSortField sortField, Y value, Long id,
+                                                                                  Sort.Direction direction) {
+        return (root, query, cb) -> after(root, cb, root.get(sortField.getProperty()), value, id, direction);
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(Root<Task> root, CriteriaBuilder cb, Path<Y> path,
+                                                                      Y value, Long id, Sort.Direction direction) {
+        Path<Long> idPath = root.get("id");
+        if (direction.isAscending()) {
+            return cb.or(cb.greaterThan(path, value), cb.and(cb.equal(path, value), cb.greaterThan(idPath, id)));
+        }
+        return cb.or(cb.lessThan(path, value), cb.and(cb.equal(path, value), cb.lessThan(idPath, id)));
+    }
+}
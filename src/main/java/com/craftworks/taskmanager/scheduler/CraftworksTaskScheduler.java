@@ -1,46 +1,63 @@
 package com.craftworks.taskmanager.scheduler;
 
-import com.craftworks.taskmanager.entity.Task;
-import com.craftworks.taskmanager.enumeration.Priority;
-import com.craftworks.taskmanager.enumeration.Status;
-import com.craftworks.taskmanager.repository.TaskRepository;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.lease.LeaseManager;
+import com.craftworks.taskmanager.service.TaskService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.OptionalLong;
 import java.util.Random;
 
 /**
  * Scheduler for creating random tasks in a fixed intervall of 15000 miliseconds.
+ * <p>
+ *     The tasks are created through the {@link TaskService}, so they are cached like tasks created by clients.
+ *     The interval is configured by {@code taskmanager.scheduler.fixed-delay}, and the scheduler can be switched off
+ *     with {@code taskmanager.scheduler.enabled}. For synthetic load use the {@link TaskLoadGenerator} instead.
+ * </p>
+ * <p>
+ *     When several nodes share the database, only the node holding the {@value #LEASE} lease creates tasks.
+ * </p>
  */
 @Component
+@ConditionalOnProperty(name = "taskmanager.scheduler.enabled", havingValue = "true", matchIfMissing = true)
 public class CraftworksTaskScheduler {
 
+    static final String LEASE = "task-scheduler";
+
     private final Logger logger = LoggerFactory.getLogger(CraftworksTaskScheduler.class);
 
-    private final TaskRepository taskRepository;
+    private final TaskService taskService;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
     private final Random random = new Random();
 
     @Autowired
-    public CraftworksTaskScheduler(TaskRepository taskRepository) {
-        this.taskRepository = taskRepository;
+    public CraftworksTaskScheduler(TaskService taskService,
+                                   LeaseManager leaseManager,
+                                   PlatformTransactionManager transactionManager) {
+        this.taskService = taskService;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Scheduled(fixedDelay = 15000)
+    @Scheduled(fixedDelayString = "${taskmanager.scheduler.fixed-delay:15000}")
     public void createTask() {
-        Task task = new Task();
-        task.setCreatedAt(LocalDateTime.now());
-        task.setDueDate(LocalDate.now().plusDays(random.nextInt(10)));
-        task.setTitle("Task " + random.nextInt(100));
-        task.setDescription("Description " + random.nextInt(100));
-        task.setPriority(Priority.values()[random.nextInt(Priority.values().length)]);
-        task.setStatus(Status.values()[random.nextInt(Status.values().length)]);
-
-        task = taskRepository.save(task);
+        OptionalLong token = leaseManager.acquire(LEASE);
+        if (token.isEmpty()) {
+            return;
+        }
+        TaskDto task = transactionTemplate.execute(status -> {
+            leaseManager.fence(LEASE, token.getAsLong());
+            return taskService.createTask(RandomTasks.createTaskDto(random));
+        });
 
         logger.info("Created task: {}", task);
     }
@@ -0,0 +1,27 @@
+package com.craftworks.taskmanager.scheduler;
+
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Generator of random tasks for the schedulers.
+ */
+final class RandomTasks {
+
+    private RandomTasks() {
+    }
+
+    static CreateTaskDto createTaskDto(Random random) {
+        CreateTaskDto taskDto = new CreateTaskDto();
+        taskDto.setDueDate(LocalDate.now().plusDays(random.nextInt(10)));
+        taskDto.setTitle("Task " + random.nextInt(100));
+        taskDto.setDescription("Description " + random.nextInt(100));
+        taskDto.setPriority(Priority.values()[random.nextInt(Priority.values().length)]);
+        taskDto.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+        return taskDto;
+    }
+}
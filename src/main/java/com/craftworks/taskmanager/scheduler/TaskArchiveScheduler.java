@@ -0,0 +1,96 @@
+package com.craftworks.taskmanager.scheduler;
+
+import com.craftworks.taskmanager.exception.LeaseLostException;
+import com.craftworks.taskmanager.lease.LeaseManager;
+import com.craftworks.taskmanager.service.TaskArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Scheduler for archiving tasks which have been resolved longer than {@code taskmanager.archive.resolved-age} ago.
+ * <p>
+ *     Every run archives the tasks in batches of {@code taskmanager.archive.batch-size}, each batch in its own transaction,
+ *     until fewer tasks than a full batch are left or {@code taskmanager.archive.max-batches} batches have been archived.
+ * </p>
+ * <p>
+ *     The tasks are divided into shards by id, and each node archives the shards it holds the lease of,
+ *     so several nodes archive disjoint tasks at the same time.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiveScheduler {
+
+    private static final String JOB = "archive";
+
+    private final Logger logger = LoggerFactory.getLogger(TaskArchiveScheduler.class);
+    private final TaskArchiveService taskArchiveService;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration resolvedAge;
+    private final int batchSize;
+    private final int maxBatches;
+
+    @Autowired
+    public TaskArchiveScheduler(TaskArchiveService taskArchiveService,
+                                LeaseManager leaseManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${taskmanager.archive.resolved-age:30d}") Duration resolvedAge,
+                                @Value("${taskmanager.archive.batch-size:1000}") int batchSize,
+                                @Value("${taskmanager.archive.max-batches:100}") int maxBatches) {
+        this.taskArchiveService = taskArchiveService;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resolvedAge = resolvedAge;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${taskmanager.archive.interval:3600000}")
+    public void archiveResolvedTasks() {
+        LocalDateTime resolvedBefore = LocalDateTime.now().minus(resolvedAge);
+        int shards = leaseManager.getShards();
+        int archived = 0;
+        for (Map.Entry<Integer, Long> shard : leaseManager.acquireShards(JOB).entrySet()) {
+            archived += archiveShard(resolvedBefore, shards, shard.getKey(), shard.getValue());
+        }
+        logger.info("Archived {} tasks resolved before {}", archived, resolvedBefore);
+    }
+
+    /**
+     * Archive the tasks of a shard batch by batch, as long as the lease of the shard is held.
+     *
+     * @return Number of archived tasks
+     */
+    private int archiveShard(LocalDateTime resolvedBefore, int shards, int shard, long token) {
+        String lease = LeaseManager.shardName(JOB, shard);
+        int archived = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                Integer archivedInBatch = transactionTemplate.execute(status -> {
+                    leaseManager.fence(lease, token);
+                    return taskArchiveService.archiveResolvedTasks(resolvedBefore, batchSize, shards, shard);
+                });
+                archived += archivedInBatch;
+                if (archivedInBatch < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException | LeaseLostException ex) {
+            logger.error("An exception occurred while archiving tasks of shard {}: {}", shard, ex.getMessage());
+        }
+        return archived;
+    }
+}
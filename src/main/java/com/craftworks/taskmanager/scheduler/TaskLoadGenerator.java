@@ -0,0 +1,154 @@
+package com.craftworks.taskmanager.scheduler;
+
+import com.craftworks.taskmanager.dto.BatchResultDto;
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.service.TaskBatchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator creating random tasks at a configurable rate.
+ * <p>
+ *     When the application is ready, the configured number of workers insert batches of random tasks through the
+ *     {@link TaskBatchService} until the run duration has elapsed. Each worker paces its batches so that all workers together
+ *     reach the target rate. The achieved throughput and the percentiles of the batch insert latency are logged
+ *     periodically and at the end of the run, and published as {@code taskmanager.load-generator.insert} timer.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.load-generator.enabled", havingValue = "true")
+public class TaskLoadGenerator {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Logger logger = LoggerFactory.getLogger(TaskLoadGenerator.class);
+    private final TaskBatchService taskBatchService;
+    private final Timer insertTimer;
+    private final double rate;
+    private final int batchSize;
+    private final int workers;
+    private final long durationSeconds;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ExecutorService executor;
+
+    @Autowired
+    public TaskLoadGenerator(TaskBatchService taskBatchService,
+                             MeterRegistry meterRegistry,
+                             @Value("${taskmanager.load-generator.rate:1000}") double rate,
+                             @Value("${taskmanager.load-generator.batch-size:100}") int batchSize,
+                             @Value("${taskmanager.load-generator.workers:4}") int workers,
+                             @Value("${taskmanager.load-generator.duration:60}") long durationSeconds) {
+        this.taskBatchService = taskBatchService;
+        this.insertTimer = Timer.builder("taskmanager.load-generator.insert")
+                .description("Latency of inserting a batch of generated tasks")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rate = rate;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.durationSeconds = durationSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers + 1,
+                runnable -> new Thread(runnable, "load-generator-" + threadNumber.getAndIncrement()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        logger.info("Generating {} tasks/s in batches of {} with {} workers for {} s", rate, batchSize, workers, durationSeconds);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long batchIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * batchSize * workers / rate);
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            // Stagger the workers, so their batches are spread evenly over the interval
+            long firstBatchNanos = startNanos + batchIntervalNanos * worker / workers;
+            boolean reporting = worker == 0;
+            futures.add(executor.submit(() -> work(startNanos, firstBatchNanos, batchIntervalNanos, endNanos, reporting)));
+        }
+        executor.submit(() -> {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception ex) {
+                    logger.error("Load generator worker failed: {}", ex.getMessage());
+                }
+            }
+            report("Finished", startNanos);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Inserts batches of random tasks until the end of the run.
+     *
+     * @param reporting whether this worker logs the progress of the run
+     */
+    private void work(long startNanos, long firstBatchNanos, long batchIntervalNanos, long endNanos, boolean reporting) {
+        long nextBatchNanos = firstBatchNanos;
+        long nextReportNanos = firstBatchNanos + REPORT_INTERVAL_NANOS;
+        while (nextBatchNanos - endNanos < 0 && !Thread.currentThread().isInterrupted()) {
+            long waitNanos = nextBatchNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            List<CreateTaskDto> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(RandomTasks.createTaskDto(ThreadLocalRandom.current()));
+            }
+            List<BatchResultDto> results = insertTimer.record(() -> taskBatchService.createTasks(batch));
+            long createdInBatch = results.stream().filter(result -> result.getError() == null).count();
+            created.add(createdInBatch);
+            failed.add(results.size() - createdInBatch);
+
+            nextBatchNanos += batchIntervalNanos;
+            if (reporting && System.nanoTime() - nextReportNanos >= 0) {
+                report("Running", startNanos);
+                nextReportNanos += REPORT_INTERVAL_NANOS;
+            }
+        }
+    }
+
+    private void report(String state, long startNanos) {
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        HistogramSnapshot snapshot = insertTimer.takeSnapshot();
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            percentiles.append(String.format(" p%.0f=%.1fms", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        logger.info("{}: created {} tasks ({} failed) in {} s, {} tasks/s, batch insert latency{}",
+                state, created.sum(), failed.sum(), String.format("%.1f", elapsedSeconds),
+                String.format("%.0f", created.sum() / elapsedSeconds), percentiles);
+    }
+}
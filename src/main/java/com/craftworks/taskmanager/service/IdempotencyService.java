@@ -0,0 +1,258 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.IdempotencyKey;
+import com.craftworks.taskmanager.exception.LeaseLostException;
+import com.craftworks.taskmanager.exception.TaskAccessException;
+import com.craftworks.taskmanager.exception.TaskConflictException;
+import com.craftworks.taskmanager.lease.LeaseManager;
+import com.craftworks.taskmanager.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for creating a task at most once per Idempotency-Key, so clients can safely retry a create request.
+ *     The response of the first request is kept for {@code taskmanager.idempotency.ttl} in a bounded in-memory store and returned
+ *     for every retry with the same key. A retry arriving while the first request is still running waits for its response
+ *     instead of creating a second task.
+ * </p>
+ * <p>
+ *     With {@code taskmanager.idempotency.database-store=true} the keys are also stored in the {@code idempotency_keys} table,
+ *     in the transaction creating the task, so retries reaching another instance or arriving after a restart are recognized as well.
+ * </p>
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String CLEANUP_LEASE = "idempotency-cleanup";
+
+    private final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private final TaskService taskService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final LeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final boolean databaseStore;
+    private final Counter replayedRequests;
+
+    @Autowired
+    public IdempotencyService(TaskService taskService,
+                              IdempotencyKeyRepository idempotencyKeyRepository,
+                              LeaseManager leaseManager,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${taskmanager.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${taskmanager.idempotency.max-keys:100000}") long maxKeys,
+                              @Value("${taskmanager.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${taskmanager.idempotency.database-store:false}") boolean databaseStore) {
+        this.taskService = taskService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.databaseStore = databaseStore;
+        this.replayedRequests = Counter.builder("taskmanager.idempotency.replayed")
+                .description("Create requests answered with the response of an earlier request with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create task once per Idempotency-Key
+     * <p>
+     *     This method is responsible for creating a task for the first request with a key and returning the created task
+     *     for every later request with the same key.
+     *     If a request with the key is still running, it waits for its response.
+     *     If the key has been used for another request body, it returns an unprocessable entity response to the controller.
+     *     If the running request does not finish in time, it returns a conflict response to the controller.
+     *     If the first request has failed, the key is released, so the next retry creates the task.
+     * </p>
+     * @param idempotencyKey Idempotency-Key of the request
+     * @param taskDto        Task to be created
+     * @return               Created task
+     */
+    public TaskDto createTask(String idempotencyKey, CreateTaskDto taskDto) {
+        String fingerprint = fingerprint(taskDto);
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(idempotencyKey, pending);
+        if (existing != null) {
+            return replay(idempotencyKey, fingerprint, await(idempotencyKey, existing));
+        }
+
+        StoredResponse response;
+        try {
+            response = databaseStore
+                    ? createTaskWithStoredKey(idempotencyKey, fingerprint, taskDto)
+                    : new StoredResponse(fingerprint, taskService.createTask(taskDto), false);
+        } catch (RuntimeException ex) {
+            responses.asMap().remove(idempotencyKey, pending);
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+        pending.complete(response);
+        if (response.replayed()) {
+            return replay(idempotencyKey, fingerprint, response);
+        }
+        logger.info("Created task with id: {} for Idempotency-Key: {}", response.taskDto().getId(), idempotencyKey);
+        return response.taskDto();
+    }
+
+    /**
+     * Delete the keys which have outlived their time to live from the database.
+     * Keys are recognized until they have been deleted, so they live at least for their time to live.
+     * Only the node holding the cleanup lease deletes keys.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.idempotency.cleanup-interval:600000}")
+    public void deleteExpiredKeys() {
+        if (!databaseStore) {
+            return;
+        }
+        OptionalLong token = leaseManager.acquire(CLEANUP_LEASE);
+        if (token.isEmpty()) {
+            return;
+        }
+        try {
+            Integer deleted = transactionTemplate.execute(status -> {
+                leaseManager.fence(CLEANUP_LEASE, token.getAsLong());
+                return idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            });
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        } catch (DataAccessException | LeaseLostException ex) {
+            logger.error("An exception occurred while deleting expired idempotency keys: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Create the task and insert its key in one transaction, or read the response stored for the key by another instance.
+     */
+    private StoredResponse createTaskWithStoredKey(String idempotencyKey, String fingerprint, CreateTaskDto taskDto) {
+        StoredResponse stored = findStoredResponse(idempotencyKey);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                TaskDto createdTaskDto = taskService.createTask(taskDto);
+                IdempotencyKey key = new IdempotencyKey();
+                key.setIdempotencyKey(idempotencyKey);
+                key.setCreatedAt(LocalDateTime.now());
+                key.setFingerprint(fingerprint);
+                key.setTaskId(createdTaskDto.getId());
+                key.setResponse(toJson(createdTaskDto));
+                idempotencyKeyRepository.saveAndFlush(key);
+                return new StoredResponse(fingerprint, createdTaskDto, false);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            logger.info("Idempotency-Key: {} has been stored concurrently", idempotencyKey);
+            stored = findStoredResponse(idempotencyKey);
+            if (stored == null) {
+                throw new TaskAccessException(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return stored;
+        }
+    }
+
+    private StoredResponse findStoredResponse(String idempotencyKey) {
+        return idempotencyKeyRepository.findById(idempotencyKey)
+                .map(key -> new StoredResponse(key.getFingerprint(), fromJson(key.getResponse()), true))
+                .orElse(null);
+    }
+
+    private StoredResponse await(String idempotencyKey, CompletableFuture<StoredResponse> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            logger.error("Request with Idempotency-Key: {} is still in progress", idempotencyKey);
+            throw new TaskConflictException("Request with Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+        } catch (ExecutionException ex) {
+            logger.error("Request with Idempotency-Key: {} has failed: {}", idempotencyKey, ex.getCause().getMessage());
+            throw new TaskAccessException("Request with Idempotency-Key has failed", HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TaskAccessException("Interrupted while waiting for request with Idempotency-Key", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private TaskDto replay(String idempotencyKey, String fingerprint, StoredResponse response) {
+        if (!response.fingerprint().equals(fingerprint)) {
+            logger.error("Idempotency-Key: {} has been used for another request", idempotencyKey);
+            throw new TaskConflictException("Idempotency-Key has been used for another request", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        replayedRequests.increment();
+        logger.info("Returning task with id: {} created earlier for Idempotency-Key: {}", response.taskDto().getId(), idempotencyKey);
+        return response.taskDto();
+    }
+
+    private String fingerprint(CreateTaskDto taskDto) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(taskDto));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Cannot compute fingerprint of task: " + taskDto, ex);
+        }
+    }
+
+    private String toJson(TaskDto taskDto) {
+        try {
+            return objectMapper.writeValueAsString(taskDto);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize task with id: " + taskDto.getId(), ex);
+        }
+    }
+
+    private TaskDto fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, TaskDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot deserialize stored task: " + json, ex);
+        }
+    }
+
+    /**
+     * Response of the first request with a key.
+     *
+     * @param fingerprint Hash of the request body
+     * @param taskDto     Created task
+     * @param replayed    Whether the response has been read from the database instead of being created by this request
+     */
+    private record StoredResponse(String fingerprint, TaskDto taskDto, boolean replayed) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.config.CacheConfig;
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.entity.TaskRow;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.mapper.TaskMapper;
+import com.craftworks.taskmanager.outbox.OutboxWriter;
+import com.craftworks.taskmanager.repository.ReactiveTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Reactive service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for handling CRUD requests of the reactive API without blocking a thread on the database.
+ *     It works on the same tasks table as {@link TaskService} through R2DBC, mapped to {@link TaskRow},
+ *     and applies the changes through the {@link Task} mappings of the {@link TaskMapper}.
+ *     Every write runs in an R2DBC transaction together with the insert of its task event into the outbox.
+ *     Once the transaction has committed, the write is reflected in the task cache and published as task event,
+ *     so both APIs serve consistent tasks.
+ * </p>
+ */
+@Service
+public class ReactiveTaskService {
+    private static final int FETCH_SIZE = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveTaskService.class);
+    private final ReactiveTaskRepository reactiveTaskRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final TaskMapper taskMapper;
+    private final Cache taskCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public ReactiveTaskService(ReactiveTaskRepository reactiveTaskRepository,
+                               R2dbcEntityTemplate r2dbcEntityTemplate,
+                               TaskMapper taskMapper,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher,
+                               OutboxWriter outboxWriter,
+                               ReactiveTransactionManager reactiveTransactionManager) {
+        this.reactiveTaskRepository = reactiveTaskRepository;
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.taskMapper = taskMapper;
+        this.taskCache = cacheManager.getCache(CacheConfig.TASKS);
+        this.eventPublisher = eventPublisher;
+        this.outboxWriter = outboxWriter;
+        this.transactionalOperator = TransactionalOperator.create(reactiveTransactionManager);
+    }
+
+    /**
+     * Get all tasks
+     * <p>
+     *     This method is responsible for handling GET request to get all tasks as a stream.
+     *     Rows are fetched from the database in chunks as the subscriber requests them,
+     *     so a slow subscriber slows down the query instead of buffering the table.
+     *     The tasks are sorted by title and id in ascending order.
+     * </p>
+     * @return Stream of all tasks
+     */
+    public Flux<TaskDto> getAllTasks() {
+        return r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT * FROM tasks ORDER BY title, id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map((row, metadata) -> r2dbcEntityTemplate.getConverter().read(TaskRow.class, row, metadata))
+                .all()
+                .map(taskMapper::taskRowToTaskDto)
+                .doOnSubscribe(subscription -> logger.info("Streaming all tasks"));
+    }
+
+    /**
+     * Get task by id
+     * <p>
+     *     This method is responsible for handling GET request to get a task by id.
+     *     If no task is found, the task is looked up in the archive of resolved tasks, like {@link TaskService#getTaskById(Long)} does.
+     *     If no task is found in the archive either, the result is empty.
+     * </p>
+     * @param taskId Id of the task to be retrieved
+     * @return       Task with the given id
+     */
+    public Mono<TaskDto> getTaskById(Long taskId) {
+        TaskDto cachedTaskDto = taskCache.get(taskId, TaskDto.class);
+        if (cachedTaskDto != null) {
+            return Mono.just(cachedTaskDto);
+        }
+        return reactiveTaskRepository.findById(taskId)
+                .switchIfEmpty(Mono.defer(() -> reactiveTaskRepository.findArchivedById(taskId)))
+                .map(taskMapper::taskRowToTaskDto)
+                .doOnNext(taskDto -> taskCache.put(taskId, taskDto));
+    }
+
+    /**
+     * Create task
+     * <p>
+     *     This method is responsible for handling POST request to create a task.
+     *     The id is drawn from the same sequence the blocking API uses.
+     * </p>
+     * @param taskDto Task to be created
+     * @return        Created task
+     */
+    public Mono<TaskDto> createTask(CreateTaskDto taskDto) {
+        Task task = taskMapper.createTaskDtoToEntity(taskDto, new Task());
+        return r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT nextval('task_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(taskId -> {
+                    task.setId(taskId);
+                    return r2dbcEntityTemplate.insert(taskMapper.taskToTaskRow(task));
+                })
+                .map(taskRow -> TaskEvent.created(taskMapper.taskRowToTaskDto(taskRow)))
+                .flatMap(this::writeToOutbox)
+                .as(transactionalOperator::transactional)
+                .map(event -> {
+                    taskCache.put(event.taskId(), event.after());
+                    eventPublisher.publishEvent(event);
+                    logger.info("Created task: {}", event.after());
+                    return event.after();
+                });
+    }
+
+    /**
+     * Update task
+     * <p>
+     *     This method is responsible for handling PUT request to update a task.
+     *     The update only succeeds if the task has not been modified since it was read,
+     *     otherwise an OptimisticLockingFailureException is emitted.
+     *     If no task is found, the result is empty.
+     * </p>
+     * @param taskId  Id of the task to be updated
+     * @param taskDto Task to be updated
+     * @return        Updated task
+     */
+    public Mono<TaskDto> updateTask(Long taskId, TaskDto taskDto) {
+        return reactiveTaskRepository.findById(taskId)
+                .flatMap(taskRow -> {
+                    TaskDto previousTaskDto = taskMapper.taskRowToTaskDto(taskRow);
+                    Task task = taskMapper.taskDtoToEntity(taskDto, taskMapper.taskRowToTask(taskRow));
+                    return r2dbcEntityTemplate.update(taskMapper.taskToTaskRow(task))
+                            .map(updatedTaskRow -> TaskEvent.updated(previousTaskDto, taskMapper.taskRowToTaskDto(updatedTaskRow)));
+                })
+                .flatMap(this::writeToOutbox)
+                .as(transactionalOperator::transactional)
+                .map(event -> {
+                    taskCache.put(taskId, event.after());
+                    eventPublisher.publishEvent(event);
+                    logger.info("Updated task with id: {}", taskId);
+                    return event.after();
+                });
+    }
+
+    /**
+     * Delete task
+     * <p>
+     *     This method is responsible for handling DELETE request to delete a task.
+     *     The task is read before it is deleted for the task event.
+     * </p>
+     * @param taskId Id of the task to be deleted
+     * @return       True if the task has been deleted, false if no task is found
+     */
+    public Mono<Boolean> deleteTask(Long taskId) {
+        return reactiveTaskRepository.findById(taskId)
+                .flatMap(taskRow -> r2dbcEntityTemplate.delete(TaskRow.class)
+                        .matching(query(where("id").is(taskId)))
+                        .all()
+                        .filter(deleted -> deleted > 0)
+                        .map(deleted -> TaskEvent.deleted(taskMapper.taskRowToTaskDto(taskRow))))
+                .flatMap(this::writeToOutbox)
+                .as(transactionalOperator::transactional)
+                .doOnNext(eventPublisher::publishEvent)
+                .map(event -> true)
+                .defaultIfEmpty(false)
+                .doOnNext(deleted -> {
+                    taskCache.evict(taskId);
+                    logger.info("Deleted task with id: {}: {}", taskId, deleted);
+                });
+    }
+
+    /**
+     * Insert a task event into the outbox in the transaction of the change.
+     */
+    private Mono<TaskEvent> writeToOutbox(TaskEvent event) {
+        return outboxWriter.write(event).thenReturn(event);
+    }
+}
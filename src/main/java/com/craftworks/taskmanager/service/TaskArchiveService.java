@@ -0,0 +1,100 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.event.TaskEvent;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Archive service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for moving tasks which have been resolved a while ago from the tasks table into the archive table,
+ *     so the working set and the indexes of the tasks table only cover the tasks which are still worked on.
+ *     A batch of tasks is moved with a single statement, which deletes the tasks and inserts them into the archive.
+ *     Archived tasks are published as task events, so the statistics and the change feed no longer count them.
+ * </p>
+ */
+@Service
+public class TaskArchiveService {
+
+    private static final String COLUMNS = "id, created_at, updated_at, due_date, resolved_at, title, description, priority, status, version";
+
+    private static final String ARCHIVE_BATCH = "WITH archived AS ("
+            + " DELETE FROM tasks WHERE id IN ("
+            + "  SELECT id FROM tasks WHERE status = 'RESOLVED' AND resolved_at < ? AND id % ? = ?"
+            + "  ORDER BY resolved_at LIMIT ? FOR UPDATE SKIP LOCKED)"
+            + " RETURNING " + COLUMNS + ")"
+            + " INSERT INTO tasks_archive (" + COLUMNS + ", archived_at)"
+            + " SELECT " + COLUMNS + ", now() FROM archived"
+            + " RETURNING " + COLUMNS;
+
+    private final Logger logger = LoggerFactory.getLogger(TaskArchiveService.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public TaskArchiveService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Archive a batch of tasks
+     * <p>
+     *     This method is responsible for moving the tasks of a shard which have been resolved longest before the given time into the archive.
+     *     A shard covers the tasks whose id modulo the number of shards equals the shard, so several nodes can archive disjoint tasks.
+     *     Tasks locked by a concurrent transaction are skipped and archived by a later batch.
+     * </p>
+     * @param resolvedBefore Time before which the tasks have been resolved
+     * @param batchSize      Maximum number of tasks to be archived
+     * @param shards         Number of shards
+     * @param shard          Shard to be archived, from 0 to shards - 1
+     * @return               Number of archived tasks
+     */
+    @Timed("taskmanager.service")
+    @Transactional
+    public int archiveResolvedTasks(LocalDateTime resolvedBefore, int batchSize, int shards, int shard) {
+        List<TaskDto> archivedTaskDtos = jdbcTemplate.query(ARCHIVE_BATCH, this::mapTaskDto,
+                Timestamp.valueOf(resolvedBefore), shards, shard, batchSize);
+        archivedTaskDtos.forEach(taskDto -> eventPublisher.publishEvent(TaskEvent.archived(taskDto)));
+        logger.info("Archived {} tasks of shard {} of {} resolved before {}", archivedTaskDtos.size(), shard, shards, resolvedBefore);
+        return archivedTaskDtos.size();
+    }
+
+    private TaskDto mapTaskDto(ResultSet resultSet, int rowNum) throws SQLException {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setId(resultSet.getLong("id"));
+        taskDto.setCreatedAt(toLocalDateTime(resultSet.getTimestamp("created_at")));
+        taskDto.setUpdatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")));
+        Date dueDate = resultSet.getDate("due_date");
+        taskDto.setDueDate(dueDate == null ? null : dueDate.toLocalDate());
+        taskDto.setResolvedAt(toLocalDateTime(resultSet.getTimestamp("resolved_at")));
+        taskDto.setTitle(resultSet.getString("title"));
+        taskDto.setDescription(resultSet.getString("description"));
+        String priority = resultSet.getString("priority");
+        taskDto.setPriority(priority == null ? null : Priority.valueOf(priority));
+        String status = resultSet.getString("status");
+        taskDto.setStatus(status == null ? null : Status.valueOf(status));
+        taskDto.setVersion(resultSet.getLong("version"));
+        return taskDto;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
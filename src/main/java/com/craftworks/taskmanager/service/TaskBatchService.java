@@ -0,0 +1,275 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.config.CacheConfig;
+import com.craftworks.taskmanager.dto.BatchResultDto;
+import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.mapper.TaskMapper;
+import com.craftworks.taskmanager.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Batch service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for handling batch requests to create, update and delete many tasks at once.
+ *     The items of a batch are processed in chunks, each chunk in its own transaction,
+ *     so the JDBC statements of a chunk are sent to the database in batches and a failing chunk does not roll back the others.
+ *     Every item gets its own result, so clients can tell which items have to be retried.
+ * </p>
+ */
+@Service
+public class TaskBatchService {
+    private final Logger logger = LoggerFactory.getLogger(TaskBatchService.class);
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Cache taskCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public TaskBatchService(TaskRepository taskRepository,
+                            TaskMapper taskMapper,
+                            PlatformTransactionManager transactionManager,
+                            Validator validator,
+                            CacheManager cacheManager,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${taskmanager.batch.chunk-size:1000}") int chunkSize) {
+        this.taskRepository = taskRepository;
+        this.taskMapper = taskMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.taskCache = cacheManager.getCache(CacheConfig.TASKS);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Create tasks
+     * <p>
+     *     This method is responsible for handling batch POST request to create tasks.
+     *     Invalid items are rejected with a bad request result, all other items are inserted chunk by chunk.
+     *     If a chunk cannot be inserted, all items of the chunk get an error result.
+     * </p>
+     * @param taskDtos Tasks to be created
+     * @return         Result per task in the order of the request
+     */
+    @Timed("taskmanager.service")
+    public List<BatchResultDto> createTasks(List<CreateTaskDto> taskDtos) {
+        BatchResultDto[] results = new BatchResultDto[taskDtos.size()];
+        for (int from = 0; from < taskDtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, taskDtos.size());
+            List<Integer> indexes = new ArrayList<>(to - from);
+            List<Task> tasks = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                CreateTaskDto taskDto = taskDtos.get(index);
+                String violations = validate(taskDto);
+                if (violations != null) {
+                    results[index] = BatchResultDto.failed(index, null, HttpStatus.BAD_REQUEST, violations);
+                } else {
+                    indexes.add(index);
+                    tasks.add(taskMapper.createTaskDtoToEntity(taskDto, new Task()));
+                }
+            }
+
+            try {
+                List<Task> createdTasks = inTransaction(() -> {
+                    List<Task> savedTasks = taskRepository.saveAll(tasks);
+                    // Flush first, so the events carry the versions of the inserted tasks
+                    taskRepository.flush();
+                    savedTasks.forEach(task -> eventPublisher.publishEvent(TaskEvent.created(taskMapper.taskToTaskDto(task))));
+                    return savedTasks;
+                });
+                for (int i = 0; i < indexes.size(); i++) {
+                    results[indexes.get(i)] = BatchResultDto.succeeded(indexes.get(i), createdTasks.get(i).getId(), HttpStatus.CREATED);
+                }
+                logger.info("Created {} tasks", createdTasks.size());
+            } catch (DataAccessException | TransactionException ex) {
+                logger.error("A DataAccessException occurred while creating tasks {} to {}: {}", from, to - 1, ex.getMessage());
+                for (Integer index : indexes) {
+                    results[index] = BatchResultDto.failed(index, null, HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Update tasks
+     * <p>
+     *     This method is responsible for handling batch PUT request to update tasks.
+     *     The tasks of a chunk are loaded with a single query, updated and written back in JDBC batches.
+     *     Invalid items are rejected with a bad request result, unknown tasks with a not found result.
+     *     Items carrying a version are only applied if the task still has this version, otherwise they get a conflict result.
+     *     If a task of a chunk is modified concurrently, all items of the chunk get a conflict result.
+     *     If a chunk cannot be updated, all items of the chunk get an error result.
+     * </p>
+     * @param taskDtos Tasks to be updated
+     * @return         Result per task in the order of the request
+     */
+    @Timed("taskmanager.service")
+    public List<BatchResultDto> updateTasks(List<TaskDto> taskDtos) {
+        BatchResultDto[] results = new BatchResultDto[taskDtos.size()];
+        for (int from = 0; from < taskDtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, taskDtos.size());
+            List<Integer> indexes = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                TaskDto taskDto = taskDtos.get(index);
+                String violations = validate(taskDto);
+                if (violations != null) {
+                    Long taskId = taskDto == null ? null : taskDto.getId();
+                    results[index] = BatchResultDto.failed(index, taskId, HttpStatus.BAD_REQUEST, violations);
+                } else {
+                    indexes.add(index);
+                }
+            }
+
+            try {
+                int updated = inTransaction(() -> {
+                    Set<Long> ids = indexes.stream().map(index -> taskDtos.get(index).getId()).collect(Collectors.toSet());
+                    Map<Long, Task> tasks = taskRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Task::getId, Function.identity()));
+                    Map<Long, TaskDto> previousTaskDtos = new HashMap<>();
+                    for (Integer index : indexes) {
+                        TaskDto taskDto = taskDtos.get(index);
+                        Task task = tasks.get(taskDto.getId());
+                        if (task == null) {
+                            results[index] = BatchResultDto.failed(index, taskDto.getId(), HttpStatus.NOT_FOUND, "Task not found");
+                        } else if (taskDto.getVersion() != null && !taskDto.getVersion().equals(task.getVersion())) {
+                            logger.error("Task with id: {} has version {} instead of {}", task.getId(), task.getVersion(), taskDto.getVersion());
+                            results[index] = BatchResultDto.failed(index, taskDto.getId(), HttpStatus.CONFLICT, "Task has been modified");
+                        } else {
+                            TaskDto previousTaskDto = taskMapper.taskToTaskDto(task);
+                            taskMapper.taskDtoToEntity(taskDto, task);
+                            taskCache.evict(task.getId());
+                            previousTaskDtos.put(task.getId(), previousTaskDto);
+                            results[index] = BatchResultDto.succeeded(index, taskDto.getId(), HttpStatus.OK);
+                        }
+                    }
+                    // Flush first, so the events carry the incremented versions
+                    taskRepository.flush();
+                    previousTaskDtos.forEach((taskId, previousTaskDto) -> eventPublisher.publishEvent(
+                            TaskEvent.updated(previousTaskDto, taskMapper.taskToTaskDto(tasks.get(taskId)))));
+                    return previousTaskDtos.size();
+                });
+                logger.info("Updated {} tasks", updated);
+            } catch (OptimisticLockingFailureException ex) {
+                logger.error("Tasks {} to {} have been modified concurrently: {}", from, to - 1, ex.getMessage());
+                for (Integer index : indexes) {
+                    results[index] = BatchResultDto.failed(index, taskDtos.get(index).getId(), HttpStatus.CONFLICT, "Task has been modified concurrently");
+                }
+            } catch (DataAccessException | TransactionException ex) {
+                logger.error("A DataAccessException occurred while updating tasks {} to {}: {}", from, to - 1, ex.getMessage());
+                for (Integer index : indexes) {
+                    results[index] = BatchResultDto.failed(index, taskDtos.get(index).getId(), HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Delete tasks
+     * <p>
+     *     This method is responsible for handling batch DELETE request to delete tasks.
+     *     The tasks of a chunk are loaded with a single query for the task events and deleted with a single statement.
+     *     Unknown tasks get a not found result.
+     *     If a chunk cannot be deleted, all items of the chunk get an error result.
+     * </p>
+     * @param taskIds Ids of the tasks to be deleted
+     * @return        Result per task in the order of the request
+     */
+    @Timed("taskmanager.service")
+    public List<BatchResultDto> deleteTasks(List<Long> taskIds) {
+        BatchResultDto[] results = new BatchResultDto[taskIds.size()];
+        for (int from = 0; from < taskIds.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, taskIds.size());
+            List<Long> chunk = taskIds.subList(from, to);
+            try {
+                Set<Long> existingIds = inTransaction(() -> {
+                    List<Task> tasks = taskRepository.findAllById(chunk);
+                    Set<Long> ids = tasks.stream().map(Task::getId).collect(Collectors.toSet());
+                    taskRepository.deleteAllByIdInBatch(ids);
+                    ids.forEach(taskCache::evict);
+                    tasks.forEach(task -> eventPublisher.publishEvent(TaskEvent.deleted(taskMapper.taskToTaskDto(task))));
+                    return ids;
+                });
+                for (int index = from; index < to; index++) {
+                    Long taskId = taskIds.get(index);
+                    results[index] = existingIds.contains(taskId)
+                            ? BatchResultDto.succeeded(index, taskId, HttpStatus.OK)
+                            : BatchResultDto.failed(index, taskId, HttpStatus.NOT_FOUND, "Task not found");
+                }
+                logger.info("Deleted {} tasks", existingIds.size());
+            } catch (DataAccessException | TransactionException ex) {
+                logger.error("A DataAccessException occurred while deleting tasks {} to {}: {}", from, to - 1, ex.getMessage());
+                for (int index = from; index < to; index++) {
+                    results[index] = BatchResultDto.failed(index, taskIds.get(index), HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Run the work of one chunk in its own transaction.
+     * The persistence context is flushed and cleared at the end, so it does not grow over the chunks of a batch.
+     * It is flushed through the repository, so failing statements are translated into {@link DataAccessException}s like any other.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            T result = work.get();
+            taskRepository.flush();
+            entityManager.clear();
+            return result;
+        });
+    }
+
+    private String validate(Object taskDto) {
+        if (taskDto == null) {
+            return "Task must not be null";
+        }
+        Set<? extends ConstraintViolation<?>> violations = validator.validate(taskDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
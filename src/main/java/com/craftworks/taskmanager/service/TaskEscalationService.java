@@ -0,0 +1,111 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.config.CacheConfig;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.event.TaskEvent;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Escalation service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for escalating overdue tasks, which are not resolved and due before today,
+ *     by raising their priority to {@code taskmanager.due-dates.escalation-priority}.
+ *     Tasks which already have this or a higher priority are left as they are, so escalating a task twice has no effect.
+ *     The escalations are published as task events, like any other update.
+ * </p>
+ */
+@Service
+public class TaskEscalationService {
+
+    private static final String ESCALATE = "WITH previous AS ("
+            + " SELECT t.* FROM tasks t"
+            + " WHERE t.id = ANY(?::bigint[]) AND t.status <> 'RESOLVED' AND t.due_date < ? AND t.priority = ANY(?::varchar[])"
+            + " FOR UPDATE)"
+            + " UPDATE tasks t SET priority = ?, updated_at = ?, version = t.version + 1"
+            + " FROM previous p"
+            + " WHERE t.id = p.id"
+            + " RETURNING " + TaskStatusUpdateService.columns("t.", "") + ", " + TaskStatusUpdateService.columns("p.", "previous_");
+
+    private final Logger logger = LoggerFactory.getLogger(TaskEscalationService.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final Priority escalationPriority;
+
+    @Autowired
+    public TaskEscalationService(JdbcTemplate jdbcTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 CacheManager cacheManager,
+                                 @Value("${taskmanager.due-dates.escalation-priority:HIGH}") Priority escalationPriority) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.escalationPriority = escalationPriority;
+    }
+
+    /**
+     * Escalate tasks
+     * <p>
+     *     This method is responsible for raising the priority of the given tasks which are overdue with a single statement.
+     *     The update time is set and the version is incremented for every escalated task.
+     *     Tasks which do not exist, have been resolved, have been given another due date or already have the escalation priority are skipped.
+     * </p>
+     * @param taskIds Ids of the tasks which have become due
+     * @return        Escalated tasks
+     */
+    @Timed("taskmanager.service")
+    @Transactional
+    public List<TaskEvent> escalate(Collection<Long> taskIds) {
+        Long[] ids = taskIds.toArray(new Long[0]);
+        String[] lowerPriorities = Arrays.stream(Priority.values())
+                .filter(this::isBelowEscalation)
+                .map(Priority::name)
+                .toArray(String[]::new);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<TaskEvent> events = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ESCALATE);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setDate(2, Date.valueOf(LocalDate.now()));
+            statement.setArray(3, connection.createArrayOf("varchar", lowerPriorities));
+            statement.setString(4, escalationPriority.name());
+            statement.setTimestamp(5, now);
+            return statement;
+        }, (resultSet, rowNum) -> TaskEvent.updated(
+                TaskStatusUpdateService.mapTaskDto(resultSet, "previous_"), TaskStatusUpdateService.mapTaskDto(resultSet, "")));
+
+        // The cache is updated once the transaction has committed
+        Cache cache = cacheManager.getCache(CacheConfig.TASKS);
+        for (TaskEvent event : events) {
+            cache.put(event.taskId(), event.after());
+            eventPublisher.publishEvent(event);
+        }
+        logger.info("Escalated {} of {} due tasks to priority {}", events.size(), ids.length, escalationPriority);
+        return events;
+    }
+
+    /**
+     * @return Whether a task with the given priority is raised when it becomes overdue
+     */
+    public boolean isBelowEscalation(Priority priority) {
+        return priority != null && priority.compareTo(escalationPriority) < 0;
+    }
+}
@@ -0,0 +1,342 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.dto.TaskEventDto;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Change feed of Taskmanagement System.
+ * <p>
+ *     This class is responsible for publishing committed changes of tasks to the subscribers of the change feed as Server-Sent Events.
+ *     Every event gets an id of the form {@code <epoch>-<sequence>}; the last events are kept in a ring buffer,
+ *     so a subscriber reconnecting with the id of the last event it has received gets the events it has missed.
+ *     If these events are no longer buffered or have been published by an earlier run of the application,
+ *     the subscriber gets a {@code reset} event instead and has to reload the tasks.
+ * </p>
+ * <p>
+ *     Events are serialized once and queued per subscriber and sent by a pool of {@code taskmanager.events.sender-threads} threads
+ *     of the feed's own, so a slow subscriber never blocks the transaction publishing the event nor other work of the application.
+ *     When the queue of a subscriber is full, either its oldest event is dropped
+ *     or the subscriber is disconnected and resumes from the ring buffer when it reconnects.
+ *     A subscriber whose send blocks for longer than {@code taskmanager.events.send-timeout} milliseconds is disconnected,
+ *     so it frees its sender thread for the other subscribers.
+ * </p>
+ */
+@Service
+public class TaskEventFeed implements DisposableBean {
+
+    /**
+     * What happens when the queue of a subscriber is full.
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(TaskEventFeed.class);
+    private final ExecutorService sender;
+    private final ObjectMapper objectMapper;
+    private final OverflowPolicy overflowPolicy;
+    private final int queueCapacity;
+    private final long timeout;
+    private final long sendTimeoutNanos;
+    private final Counter droppedEvents;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Ring buffer of the last events, the event with sequence n is stored at index n modulo the buffer size.
+     * Guarded by the buffer itself, like the sequence.
+     */
+    private final String[] buffer;
+    private long sequence;
+
+    @Autowired
+    public TaskEventFeed(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${taskmanager.events.buffer-size:10000}") int bufferSize,
+                         @Value("${taskmanager.events.queue-capacity:1000}") int queueCapacity,
+                         @Value("${taskmanager.events.overflow-policy:DISCONNECT}") OverflowPolicy overflowPolicy,
+                         @Value("${taskmanager.events.timeout:1800000}") long timeout,
+                         @Value("${taskmanager.events.sender-threads:4}") int senderThreads,
+                         @Value("${taskmanager.events.send-timeout:10000}") long sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.buffer = new String[bufferSize];
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeout);
+        // Every subscriber has at most one pending send task, so the queue of the pool is bounded by the number of subscribers
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("event-feed-");
+        threadFactory.setDaemon(true);
+        this.sender = Executors.newFixedThreadPool(senderThreads, threadFactory);
+        this.droppedEvents = Counter.builder("taskmanager.events.dropped")
+                .description("Number of events not delivered to slow subscribers of the change feed")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        Gauge.builder("taskmanager.events.subscribers", subscriptions, Set::size)
+                .description("Number of subscribers of the change feed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Subscribe to the change feed.
+     *
+     * @param lastEventId Id of the last event the subscriber has received, null for a new subscriber
+     * @return            Emitter of the events
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscription subscription = new Subscription(emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscriptions.remove(subscription));
+
+        synchronized (buffer) {
+            if (lastEventId != null) {
+                long resumeAfter = resumeAfter(lastEventId);
+                if (resumeAfter < 0) {
+                    logger.info("Cannot resume change feed after event {}, resetting subscriber", lastEventId);
+                    String resetId = id(sequence);
+                    subscription.queue.add(() -> SseEmitter.event().id(resetId).name("reset").data("", MediaType.TEXT_PLAIN));
+                } else {
+                    for (long replayed = resumeAfter + 1; replayed <= sequence; replayed++) {
+                        subscription.queue.add(event(replayed, buffer[index(replayed)]));
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+        }
+        logger.info("Subscribed to change feed after event {}", lastEventId);
+        subscription.drain();
+        return emitter;
+    }
+
+    /**
+     * Publish a committed change of a task to all subscribers.
+     * Changes made outside of a transaction, like those of the reactive API, are published immediately.
+     *
+     * @param event Change of a task
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(TaskEventDto.of(event));
+        } catch (JsonProcessingException ex) {
+            logger.error("Cannot serialize event of task with id: {}: {}", event.taskId(), ex.getMessage());
+            return;
+        }
+        List<Subscription> overflown = new ArrayList<>();
+        synchronized (buffer) {
+            sequence++;
+            buffer[index(sequence)] = data;
+            Supplier<SseEmitter.SseEventBuilder> sseEvent = event(sequence, data);
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.offer(sseEvent)) {
+                    overflown.add(subscription);
+                }
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.drain();
+        }
+        for (Subscription subscription : overflown) {
+            logger.warn("Disconnecting slow subscriber of the change feed");
+            subscription.disconnect(false);
+        }
+    }
+
+    /**
+     * Send a comment to idle subscribers, so connections to subscribers which have gone away are detected and closed.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.queue.isEmpty()) {
+                subscription.queue.offer(() -> SseEmitter.event().comment("heartbeat"));
+                subscription.drain();
+            }
+        }
+    }
+
+    /**
+     * Disconnect subscribers whose send has blocked for longer than the send timeout,
+     * e.g. because the client has stopped reading, and interrupt the send.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.events.send-timeout:10000}")
+    public void disconnectBlocked() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > sendTimeoutNanos) {
+                logger.warn("Disconnecting subscriber of the change feed whose send has blocked for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                droppedEvents.increment(subscription.queue.size());
+                subscription.disconnect(true);
+            }
+        }
+    }
+
+    /**
+     * @return Sequence of the last event the subscriber has received, or -1 if the missed events are not buffered
+     */
+    private long resumeAfter(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long resumeAfter = Long.parseLong(lastEventId.substring(separator + 1));
+            long oldestBuffered = Math.max(1, sequence - buffer.length + 1);
+            if (resumeAfter > sequence || resumeAfter + 1 < oldestBuffered || sequence - resumeAfter > queueCapacity) {
+                return -1;
+            }
+            return resumeAfter;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Event builders are not reusable, so every subscriber builds its own from the shared serialized data.
+     */
+    private Supplier<SseEmitter.SseEventBuilder> event(long eventSequence, String data) {
+        String id = id(eventSequence);
+        return () -> SseEmitter.event()
+                .id(id)
+                .data(data, MediaType.APPLICATION_JSON);
+    }
+
+    private String id(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    private int index(long eventSequence) {
+        return (int) (eventSequence % buffer.length);
+    }
+
+    /**
+     * Subscriber of the change feed with its own bounded queue of events.
+     * At most one task of the sender pool sends the queued events of a subscriber at a time.
+     */
+    private final class Subscription {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /**
+         * Value of {@link System#nanoTime()} when the current send has started, 0 while no event is being sent.
+         */
+        private volatile long sendingSince;
+        private volatile Future<?> sending;
+        private volatile boolean closed;
+
+        private Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return False if the event could not be queued and the subscriber has to be disconnected
+         */
+        private boolean offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (queue.offer(event)) {
+                return true;
+            }
+            droppedEvents.increment();
+            if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                return false;
+            }
+            queue.poll();
+            return queue.offer(event);
+        }
+
+        private void drain() {
+            if ((queue.isEmpty() && !closed) || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sending = sender.submit(this::send);
+            } catch (RejectedExecutionException ex) {
+                // The feed is shutting down
+                draining.set(false);
+            }
+        }
+
+        private void send() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while (!closed && (event = queue.poll()) != null) {
+                    sendingSince = System.nanoTime();
+                    emitter.send(event.get());
+                    sendingSince = 0;
+                }
+                if (closed) {
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException ex) {
+                logger.info("Subscriber of the change feed has gone away: {}", ex.getMessage());
+                subscriptions.remove(this);
+                queue.clear();
+                return;
+            } finally {
+                sendingSince = 0;
+                draining.set(false);
+            }
+            // Events queued after the last poll but before draining was reset are sent by another run
+            drain();
+        }
+
+        /**
+         * Disconnect the subscriber. The emitter is completed by the sender pool, never by the calling thread,
+         * as a blocked send holds the lock of the emitter until it returns.
+         *
+         * @param interrupt Whether to interrupt a send in progress
+         */
+        private void disconnect(boolean interrupt) {
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+            Future<?> current = sending;
+            if (interrupt && current != null) {
+                current.cancel(true);
+            }
+            drain();
+        }
+    }
+}
@@ -1,26 +1,51 @@
 package com.craftworks.taskmanager.service;
 
+import com.craftworks.taskmanager.config.CacheConfig;
+import com.craftworks.taskmanager.dto.CacheStatsDto;
 import com.craftworks.taskmanager.dto.CreateTaskDto;
+import com.craftworks.taskmanager.dto.PatchTaskDto;
+import com.craftworks.taskmanager.dto.TaskCursor;
 import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskFilterDto;
+import com.craftworks.taskmanager.entity.ArchivedTask;
 import com.craftworks.taskmanager.entity.Task;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.enumeration.TaskSortField;
 import com.craftworks.taskmanager.exception.TaskAccessException;
+import com.craftworks.taskmanager.exception.TaskConflictException;
 import com.craftworks.taskmanager.exception.TaskNotFoundException;
 import com.craftworks.taskmanager.mapper.TaskMapper;
+import com.craftworks.taskmanager.repository.ArchivedTaskRepository;
+import com.craftworks.taskmanager.repository.PatchedTask;
 import com.craftworks.taskmanager.repository.TaskRepository;
+import com.craftworks.taskmanager.repository.TaskSpecifications;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.persistence.EntityNotFoundException;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service of Taskmanagement System.
@@ -35,12 +60,25 @@ import java.util.Optional;
 public class TaskService {
     private final Logger logger = LoggerFactory.getLogger(TaskService.class);
     private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
     private final TaskMapper taskMapper;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int searchCandidates;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, TaskMapper taskMapper) {
+    public TaskService(TaskRepository taskRepository,
+                       ArchivedTaskRepository archivedTaskRepository,
+                       TaskMapper taskMapper,
+                       CacheManager cacheManager,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${taskmanager.search.max-candidates:1000}") int searchCandidates) {
         this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
         this.taskMapper = taskMapper;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.searchCandidates = searchCandidates;
     }
 
     /**
@@ -52,15 +90,17 @@ public class TaskService {
      *     If no tasks are found, it returns an empty list.
      *     If tasks are found, it returns a sorted list of tasks.
      *     The sorting is done by title in ascending order.
+     *     The tasks are selected directly into TaskDtos, without loading entities.
      * </p>
      * @return List of all tasks
      */
+    @Timed("taskmanager.service")
     @Transactional(readOnly = true)
     public List<TaskDto> getAllTasks() {
         try {
-            Optional<List<Task>> tasks = Optional.of(taskRepository.findAll(Sort.by(Sort.Direction.ASC, "title")));
+            List<TaskDto> taskDtos = taskRepository.findAllTaskDtos(Sort.by(Sort.Direction.ASC, "title"));
             logger.info("Retrieving all tasks");
-            return taskMapper.taskListToTaskDtoList(tasks.get());
+            return taskDtos;
         } catch (DataAccessException ex) {
             logger.error("A DataAccessException occurred while getting all tasks: {}", ex.getMessage());
             throw new TaskAccessException("Failed to get all tasks", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -70,25 +110,121 @@ public class TaskService {
         }
     }
 
+    /**
+     * Get a page of tasks
+     * <p>
+     *     This method is responsible for handling GET request to get a filtered page of tasks.
+     *     The tasks are sorted by the sort field of the filter and their id, and the page starts right after the given cursor.
+     *     Only the requested number of rows is read from the repository, independent of the size of the table.
+     *     The tasks are selected directly into TaskDtos, without loading entities.
+     *     If no cursor is given, the first page is returned.
+     * </p>
+     * @param filter Filter and sort order of the tasks
+     * @param after  Cursor of the last task of the previous page, may be null
+     * @param limit  Maximum number of tasks in the page
+     * @return       Page of tasks
+     */
+    @Timed("taskmanager.service")
+    @Transactional(readOnly = true)
+    public List<TaskDto> getTaskPage(TaskFilterDto filter, TaskCursor after, int limit) {
+        TaskSortField sortField = filter.sortField();
+        Sort.Direction direction = filter.sortDirection();
+        Specification<Task> spec = TaskSpecifications.matching(filter);
+        if (after != null) {
+            spec = spec.and(TaskSpecifications.after(after, sortField, direction));
+        }
+        try {
+            List<TaskDto> taskDtos = taskRepository.findAllTaskDtos(spec, TaskSpecifications.sort(sortField, direction), limit);
+            logger.info("Retrieving {} tasks after cursor: {}", taskDtos.size(), after);
+            return taskDtos;
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while getting a page of tasks: {}", ex.getMessage());
+            throw new TaskAccessException("Failed to get a page of tasks", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Stream all tasks
+     * <p>
+     *     This method is responsible for handling GET request to stream all tasks matching a filter.
+     *     The tasks are read through a database cursor directly into TaskDtos and handed one by one to the given consumer.
+     *     No entities are loaded, so the persistence context does not grow with the table.
+     *     The tasks are sorted by the sort field of the filter and their id.
+     * </p>
+     * @param filter   Filter and sort order of the tasks
+     * @param consumer Consumer receiving the tasks
+     */
+    @Timed("taskmanager.service")
+    @Transactional(readOnly = true)
+    public void streamAllTasks(TaskFilterDto filter, Consumer<TaskDto> consumer) {
+        Sort sort = TaskSpecifications.sort(filter.sortField(), filter.sortDirection());
+        try (Stream<TaskDto> taskDtos = taskRepository.streamTaskDtos(TaskSpecifications.matching(filter), sort)) {
+            logger.info("Streaming all tasks");
+            taskDtos.forEach(consumer);
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while streaming all tasks: {}", ex.getMessage());
+            throw new TaskAccessException("Failed to stream all tasks", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Search tasks
+     * <p>
+     *     This method is responsible for handling GET request to search tasks by their title and description.
+     *     The tasks are ranked by relevance and only the requested page of the ranking is read from the repository.
+     *     At most {@code taskmanager.search.max-candidates} matches are ranked, pages beyond them are empty.
+     * </p>
+     * @param query  Search query in web search syntax
+     * @param offset Number of ranked tasks to skip
+     * @param limit  Maximum number of tasks in the page
+     * @return       Page of matching tasks, most relevant first
+     */
+    @Timed("taskmanager.service")
+    @Transactional(readOnly = true)
+    public List<TaskDto> searchTasks(String query, int offset, int limit) {
+        try {
+            if (offset >= searchCandidates) {
+                return List.of();
+            }
+            List<TaskDto> taskDtos = taskRepository.search(query, searchCandidates, offset, limit);
+            logger.info("Found {} tasks for search: {}", taskDtos.size(), query);
+            return taskDtos;
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while searching tasks: {}", ex.getMessage());
+            throw new TaskAccessException("Failed to search tasks", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Get task by id
      * <p>
      *     This method is responsible for handling GET request to get a task by id.
      *     It delegates the request to the repository layer and returns the response to the controller.
      *     If any error occurs while getting the task, it returns an error response to the controller.
-     *     If no task is found, it returns an error response to the controller.
+     *     The task is selected directly into a TaskDto, without loading the entity.
+     *     If no task is found, the task is looked up in the archive of resolved tasks.
+     *     If no task is found in the archive either, it returns an error response to the controller.
      *     If task is found, it returns the task.
+     *     The task is read from the primary, not from a read replica, as it is kept in the task cache,
+     *     where a task read from a lagging replica would stay stale until it expires.
      * </p>
      * @param taskId Id of the task to be retrieved
      * @return      Task with the given id
      */
-    @Transactional(readOnly = true)
+    @Timed("taskmanager.service")
+    @Cacheable(cacheNames = CacheConfig.TASKS, key = "#taskId")
+    @Transactional
     public TaskDto getTaskById(Long taskId) {
         try {
-            Optional<Task> task = taskRepository.findById(taskId);
-            if (task.isPresent()) {
+            Optional<TaskDto> taskDto = taskRepository.findTaskDtoById(taskId);
+            if (taskDto.isPresent()) {
                 logger.info("Task found with id: {}", taskId);
-                return taskMapper.taskToTaskDto(task.get());
+                return taskDto.get();
+            }
+            Optional<ArchivedTask> archivedTask = archivedTaskRepository.findById(taskId);
+            if (archivedTask.isPresent()) {
+                logger.info("Archived task found with id: {}", taskId);
+                return taskMapper.archivedTaskToTaskDto(archivedTask.get());
             } else {
                 logger.info("Task not found with id: {}", taskId);
                 throw new TaskNotFoundException("Task not found with id: " + taskId, HttpStatus.NOT_FOUND);
@@ -110,6 +246,8 @@ public class TaskService {
      * @param taskDto Task to be created
      * @return        Created task
      */
+    @Timed("taskmanager.service")
+    @CachePut(cacheNames = CacheConfig.TASKS, key = "#result.id")
     @Transactional
     public TaskDto createTask(CreateTaskDto taskDto) {
         TaskDto createdTaskDto;
@@ -117,6 +255,7 @@ public class TaskService {
             Task task = taskMapper.createTaskDtoToEntity(taskDto, new Task());
             task = taskRepository.save(task);
             createdTaskDto = taskMapper.taskToTaskDto(task);
+            eventPublisher.publishEvent(TaskEvent.created(createdTaskDto));
             logger.info("Created task: {}", createdTaskDto);
             return createdTaskDto;
         } catch (DataAccessException ex) {
@@ -135,31 +274,86 @@ public class TaskService {
      *     It delegates the request to the repository layer and returns the response to the controller.
      *     If any error occurs while updating the task, it returns an error response to the controller.
      *     If no task is found, it returns an error response to the controller.
+     *     If an expected version is given and the task has another version, it returns a precondition failed response to the controller.
      *     If task is updated successfully, it returns the updated task.
      * </p>
-     * @param taskId  Id of the task to be updated
-     * @param taskDto Task to be updated
-     * @return        Updated task
+     * @param taskId          Id of the task to be updated
+     * @param taskDto         Task to be updated
+     * @param expectedVersion Version the task must have, may be null
+     * @return                Updated task
      */
+    @Timed("taskmanager.service")
+    @CachePut(cacheNames = CacheConfig.TASKS, key = "#taskId")
     @Transactional
-    public TaskDto updateTask(Long taskId, TaskDto taskDto) {
+    public TaskDto updateTask(Long taskId, TaskDto taskDto, Long expectedVersion) {
         Optional<Task> optionalTask = taskRepository.findById(taskId);
         if (optionalTask.isEmpty()) {
             logger.error("Task not found: {}", taskDto);
             throw new TaskNotFoundException("Task not found", HttpStatus.NOT_FOUND);
         }
         Task task = optionalTask.get();
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            logger.error("Task with id: {} has version {} instead of {}", taskId, task.getVersion(), expectedVersion);
+            throw new TaskConflictException("Task has been modified", HttpStatus.PRECONDITION_FAILED);
+        }
+        TaskDto previousTaskDto = taskMapper.taskToTaskDto(task);
         task = taskMapper.taskDtoToEntity(taskDto, task);
         try {
-            task = taskRepository.save(task);
+            task = taskRepository.saveAndFlush(task);
             TaskDto updatedTaskDto = taskMapper.taskToTaskDto(task);
+            eventPublisher.publishEvent(TaskEvent.updated(previousTaskDto, updatedTaskDto));
             logger.info("Updated task with id: {}", taskId);
             return updatedTaskDto;
+        } catch (OptimisticLockingFailureException ex) {
+            logger.error("Task with id: {} has been modified concurrently", taskId);
+            throw new TaskConflictException("Task has been modified concurrently", HttpStatus.CONFLICT);
         } catch (DataAccessException ex) {
             logger.error("A DataAccessException occurred while updating task: {}", ex.getMessage());
             throw new TaskAccessException(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Patch task
+     * <p>
+     *     This method is responsible for handling PATCH request to update some fields of a task.
+     *     Only the fields which are set in the patch are written, with a single conditional update statement,
+     *     which locks the task and returns its previous and patched state as TaskDtos for the task event, without loading the entity.
+     *     If no task is found, it returns an error response to the controller.
+     *     If an expected version is given and the task has another version, it returns a precondition failed response to the controller.
+     *     If task is patched successfully, it returns the patched task.
+     * </p>
+     * @param taskId          Id of the task to be patched
+     * @param patch           Fields to be updated
+     * @param expectedVersion Version the task must have, may be null
+     * @return                Patched task
+     */
+    @Timed("taskmanager.service")
+    @CachePut(cacheNames = CacheConfig.TASKS, key = "#taskId")
+    @Transactional
+    public TaskDto patchTask(Long taskId, PatchTaskDto patch, Long expectedVersion) {
+        try {
+            Optional<PatchedTask> patchedTask = taskRepository.patch(taskId, patch, expectedVersion);
+            if (patchedTask.isEmpty()) {
+                // Only a failed patch reads the task again, to tell a missing task from a modified one
+                Optional<TaskDto> currentTask = taskRepository.findTaskDtoById(taskId);
+                if (currentTask.isEmpty()) {
+                    logger.error("Task not found with id: {}", taskId);
+                    throw new TaskNotFoundException("Task not found with id: " + taskId, HttpStatus.NOT_FOUND);
+                }
+                logger.error("Task with id: {} has version {} instead of {}", taskId, currentTask.get().getVersion(), expectedVersion);
+                throw new TaskConflictException("Task has been modified", HttpStatus.PRECONDITION_FAILED);
+            }
+            TaskDto patchedTaskDto = patchedTask.get().patched();
+            eventPublisher.publishEvent(TaskEvent.updated(patchedTask.get().previous(), patchedTaskDto));
+            logger.info("Patched task with id: {}", taskId);
+            return patchedTaskDto;
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while patching task: {}", ex.getMessage());
+            throw new TaskAccessException(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Delete task
      * <p>
@@ -171,10 +365,17 @@ public class TaskService {
      * </p>
      * @param taskId Id of the task to be deleted
      */
+    @Timed("taskmanager.service")
+    @CacheEvict(cacheNames = CacheConfig.TASKS, key = "#taskId")
     @Transactional
     public void deleteTask(Long taskId) {
         try {
-            taskRepository.deleteById(taskId);
+            Optional<Task> task = taskRepository.findById(taskId);
+            if (task.isPresent()) {
+                TaskDto deletedTaskDto = taskMapper.taskToTaskDto(task.get());
+                taskRepository.delete(task.get());
+                eventPublisher.publishEvent(TaskEvent.deleted(deletedTaskDto));
+            }
             logger.info("Deleted task with id: {}", taskId);
         } catch (EmptyResultDataAccessException e) {
             logger.error("Task not found with id: {}", taskId);
@@ -187,4 +388,24 @@ public class TaskService {
             throw new RuntimeException(e.getMessage());
         }
     }
+
+    /**
+     * Get cache statistics
+     * <p>
+     *     This method is responsible for returning the statistics of the task cache,
+     *     which serves the tasks returned by {@link #getTaskById(Long)}.
+     * </p>
+     * @return Statistics of the task cache
+     */
+    public CacheStatsDto getCacheStats() {
+        Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(CacheConfig.TASKS).getNativeCache();
+        CacheStats stats = cache.stats();
+        CacheStatsDto cacheStatsDto = new CacheStatsDto();
+        cacheStatsDto.setSize(cache.estimatedSize());
+        cacheStatsDto.setHitCount(stats.hitCount());
+        cacheStatsDto.setMissCount(stats.missCount());
+        cacheStatsDto.setHitRate(stats.hitRate());
+        cacheStatsDto.setEvictionCount(stats.evictionCount());
+        return cacheStatsDto;
+    }
 }
@@ -0,0 +1,169 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.dto.TaskStatsDto;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.event.TaskEvent;
+import com.craftworks.taskmanager.repository.TaskAggregate;
+import com.craftworks.taskmanager.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for counting the tasks per status, per priority, per creation day and the overdue tasks.
+ *     The counters are built from a single grouped query when the application is ready and then updated incrementally
+ *     from the task events of committed changes, so serving the statistics never reads the tasks table.
+ *     Tasks written by other instances or directly in the database are picked up by the periodic rebuild.
+ * </p>
+ */
+@Service
+public class TaskStatsService {
+    private final Logger logger = LoggerFactory.getLogger(TaskStatsService.class);
+    private final TaskRepository taskRepository;
+    private volatile Counters counters = new Counters();
+
+    @Autowired
+    public TaskStatsService(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Rebuild the counters from the tasks in the database.
+     * <p>
+     *     Changes committed while the grouped query runs may be missed or counted twice until the next rebuild.
+     *     The counters are built once the application is ready, so the query does not run in the constructor
+     *     while the context is still being created.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${taskmanager.stats.rebuild-interval:3600000}",
+            fixedDelayString = "${taskmanager.stats.rebuild-interval:3600000}")
+    public void rebuild() {
+        try {
+            Counters rebuilt = new Counters();
+            for (TaskAggregate aggregate : taskRepository.aggregate()) {
+                rebuilt.add(aggregate.getStatus(), aggregate.getPriority(), aggregate.getDueDate(),
+                        aggregate.getCreatedDay(), aggregate.getCount());
+            }
+            counters = rebuilt;
+            logger.info("Rebuilt task statistics of {} tasks", rebuilt.total.get());
+        } catch (DataAccessException ex) {
+            logger.error("A DataAccessException occurred while rebuilding task statistics: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Update the counters with a committed change of a task.
+     * Changes made outside of a transaction, like those of the reactive API, are applied immediately.
+     *
+     * @param event Change of a task
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        Counters current = counters;
+        if (event.before() != null) {
+            current.add(event.before(), -1);
+        }
+        if (event.after() != null) {
+            current.add(event.after(), 1);
+        }
+    }
+
+    /**
+     * @return Number of tasks with the given status
+     */
+    public long getCount(Status status) {
+        return counters.byStatus.get(status).get();
+    }
+
+    /**
+     * Get task statistics
+     * <p>
+     *     This method is responsible for handling GET request to get the number of tasks in total, per status, per priority
+     *     and of the overdue tasks, which are not resolved and due before today.
+     * </p>
+     * @param byCreationDay Whether the number of tasks per creation day is included
+     * @return              Statistics of all tasks
+     */
+    public TaskStatsDto getStats(boolean byCreationDay) {
+        Counters current = counters;
+        TaskStatsDto taskStatsDto = new TaskStatsDto();
+        taskStatsDto.setTotal(current.total.get());
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        current.byStatus.forEach((status, count) -> byStatus.put(status, count.get()));
+        taskStatsDto.setByStatus(byStatus);
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        current.byPriority.forEach((priority, count) -> byPriority.put(priority, count.get()));
+        taskStatsDto.setByPriority(byPriority);
+        taskStatsDto.setOverdue(current.unresolvedByDueDate.headMap(LocalDate.now()).values().stream()
+                .mapToLong(Long::longValue)
+                .sum());
+        if (byCreationDay) {
+            taskStatsDto.setByCreationDay(new LinkedHashMap<>(current.byCreationDay));
+        }
+        return taskStatsDto;
+    }
+
+    /**
+     * Counters of the tasks, safe for concurrent updates.
+     * Days without tasks are removed from the maps, so their size stays bounded by the days which have tasks.
+     */
+    private static final class Counters {
+        private final AtomicLong total = new AtomicLong();
+        private final Map<Status, AtomicLong> byStatus = new EnumMap<>(Status.class);
+        private final Map<Priority, AtomicLong> byPriority = new EnumMap<>(Priority.class);
+        private final ConcurrentSkipListMap<LocalDate, Long> unresolvedByDueDate = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<LocalDate, Long> byCreationDay = new ConcurrentSkipListMap<>();
+
+        private Counters() {
+            for (Status status : Status.values()) {
+                byStatus.put(status, new AtomicLong());
+            }
+            for (Priority priority : Priority.values()) {
+                byPriority.put(priority, new AtomicLong());
+            }
+        }
+
+        private void add(TaskDto task, long delta) {
+            LocalDate createdDay = task.getCreatedAt() == null ? null : task.getCreatedAt().toLocalDate();
+            add(task.getStatus(), task.getPriority(), task.getDueDate(), createdDay, delta);
+        }
+
+        private void add(Status status, Priority priority, LocalDate dueDate, LocalDate createdDay, long delta) {
+            total.addAndGet(delta);
+            if (status != null) {
+                byStatus.get(status).addAndGet(delta);
+            }
+            if (priority != null) {
+                byPriority.get(priority).addAndGet(delta);
+            }
+            if (dueDate != null && status != Status.RESOLVED) {
+                merge(unresolvedByDueDate, dueDate, delta);
+            }
+            if (createdDay != null) {
+                merge(byCreationDay, createdDay, delta);
+            }
+        }
+
+        private static void merge(ConcurrentSkipListMap<LocalDate, Long> counts, LocalDate day, long delta) {
+            counts.merge(day, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.enumeration.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer of task status updates.
+ * <p>
+ *     Status updates are collected in memory per task id, where a later update of a task replaces an earlier one which has not
+ *     been written yet. Every {@code taskmanager.status-buffer.flush-interval} the buffered statuses are written by
+ *     {@link TaskStatusUpdateService} with one UPDATE statement per {@code taskmanager.status-buffer.batch-size} tasks,
+ *     so a task whose status flips many times between two flushes is written once.
+ *     While the database is available, an accepted update is written after at most the flush interval plus the duration of the flush.
+ * </p>
+ * <p>
+ *     The buffer is a {@link ConcurrentHashMap}, whose entries are updated with compare-and-set per hash bin,
+ *     so concurrent updates of different tasks do not contend. It holds at most {@code taskmanager.status-buffer.max-pending} tasks;
+ *     further updates of other tasks are rejected until the next flush. Statuses which could not be written are kept for the
+ *     next flush unless a newer status has arrived, and are retried until they have been written. As long as the last write has failed,
+ *     all further updates are rejected, so no more updates are accepted than can be written.
+ *     The buffer is flushed when the application shuts down.
+ * </p>
+ */
+@Service
+public class TaskStatusBuffer {
+
+    private final Logger logger = LoggerFactory.getLogger(TaskStatusBuffer.class);
+    private final TaskStatusUpdateService taskStatusUpdateService;
+    private final ConcurrentHashMap<Long, Status> pending = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final int maxPending;
+    private final Counter coalescedUpdates;
+    private final Counter writtenUpdates;
+    private volatile boolean writeFailing;
+
+    @Autowired
+    public TaskStatusBuffer(TaskStatusUpdateService taskStatusUpdateService,
+                            MeterRegistry meterRegistry,
+                            @Value("${taskmanager.status-buffer.batch-size:1000}") int batchSize,
+                            @Value("${taskmanager.status-buffer.max-pending:100000}") int maxPending) {
+        this.taskStatusUpdateService = taskStatusUpdateService;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        Gauge.builder("taskmanager.status-buffer.pending", pending, Map::size)
+                .description("Number of tasks with a buffered status update")
+                .register(meterRegistry);
+        this.coalescedUpdates = Counter.builder("taskmanager.status-buffer.coalesced")
+                .description("Number of buffered status updates replaced by a later update before being written")
+                .register(meterRegistry);
+        this.writtenUpdates = Counter.builder("taskmanager.status-buffer.written")
+                .description("Number of buffered status updates which have been flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffer the status of a task, replacing a buffered status of the task which has not been written yet.
+     *
+     * @param taskId Id of the task
+     * @param status New status of the task
+     * @return       Whether the status has been accepted, false if the buffer is full or the buffered statuses cannot be written
+     */
+    public boolean update(Long taskId, Status status) {
+        if (writeFailing) {
+            logger.error("Buffered statuses cannot be written, rejecting status of task with id: {}", taskId);
+            return false;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(taskId)) {
+            logger.error("Status buffer is full, rejecting status of task with id: {}", taskId);
+            return false;
+        }
+        if (pending.put(taskId, status) != null) {
+            coalescedUpdates.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Write all buffered statuses.
+     */
+    @Scheduled(fixedDelayString = "${taskmanager.status-buffer.flush-interval:1000}")
+    public void flush() {
+        Map<Long, Status> batch = new HashMap<>();
+        for (Long taskId : pending.keySet()) {
+            // Removing entry by entry keeps an update which arrives meanwhile for the next flush
+            Status status = pending.remove(taskId);
+            if (status != null) {
+                batch.put(taskId, status);
+            }
+            if (batch.size() >= batchSize) {
+                if (!write(batch)) {
+                    return;
+                }
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing {} buffered status updates on shutdown", pending.size());
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("Lost {} buffered status updates on shutdown", pending.size());
+        }
+    }
+
+    /**
+     * Write a batch of statuses, or put them back into the buffer if they cannot be written.
+     *
+     * @return Whether the batch has been written
+     */
+    private boolean write(Map<Long, Status> batch) {
+        try {
+            taskStatusUpdateService.updateStatuses(batch);
+            writtenUpdates.increment(batch.size());
+            writeFailing = false;
+            return true;
+        } catch (RuntimeException ex) {
+            // Not only DataAccessExceptions, e.g. a TransactionException if no connection can be obtained,
+            // as the statuses have already been accepted
+            logger.error("An exception occurred while writing {} buffered statuses: {}", batch.size(), ex.getMessage());
+            batch.forEach(pending::putIfAbsent);
+            writeFailing = true;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.craftworks.taskmanager.service;
+
+import com.craftworks.taskmanager.config.CacheConfig;
+import com.craftworks.taskmanager.dto.TaskDto;
+import com.craftworks.taskmanager.enumeration.Priority;
+import com.craftworks.taskmanager.enumeration.Status;
+import com.craftworks.taskmanager.event.TaskEvent;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Status update service of Taskmanagement System.
+ * <p>
+ *     This class is responsible for writing the statuses of many tasks with a single UPDATE statement.
+ *     The previous state of the tasks is selected and locked by the same statement, so the updates are published
+ *     as task events and the task cache is updated without reading the tasks beforehand.
+ *     Tasks which already have the new status are not written at all.
+ * </p>
+ */
+@Service
+public class TaskStatusUpdateService {
+
+    private static final String[] COLUMNS = {
+            "id", "created_at", "updated_at", "due_date", "resolved_at", "title", "description", "priority", "status", "version"};
+
+    private static final String UPDATE_STATUSES = "WITH input AS ("
+            + " SELECT * FROM unnest(?::bigint[], ?::varchar[]) AS u(id, status)),"
+            + " previous AS ("
+            + "  SELECT t.* FROM tasks t JOIN input u ON t.id = u.id"
+            + "  WHERE t.status IS DISTINCT FROM u.status FOR UPDATE OF t)"
+            + " UPDATE tasks t SET status = u.status, updated_at = ?, version = t.version + 1,"
+            + "  resolved_at = CASE WHEN u.status = 'RESOLVED' THEN ? ELSE t.resolved_at END"
+            + " FROM previous p JOIN input u ON u.id = p.id"
+            + " WHERE t.id = p.id"
+            + " RETURNING " + columns("t.", "") + ", " + columns("p.", "previous_");
+
+    private final Logger logger = LoggerFactory.getLogger(TaskStatusUpdateService.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public TaskStatusUpdateService(JdbcTemplate jdbcTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Update statuses
+     * <p>
+     *     This method is responsible for setting the status of each given task with a single statement.
+     *     The update time is set and the version is incremented for every task whose status changes,
+     *     and the resolution time is set for tasks which become resolved.
+     *     Tasks which do not exist, e.g. because they have been deleted or archived in the meantime, are skipped.
+     * </p>
+     * @param statuses New status per task id
+     * @return         Number of updated tasks
+     */
+    @Timed("taskmanager.service")
+    @Transactional
+    public int updateStatuses(Map<Long, Status> statuses) {
+        Long[] ids = new Long[statuses.size()];
+        String[] values = new String[statuses.size()];
+        int index = 0;
+        for (Map.Entry<Long, Status> entry : statuses.entrySet()) {
+            ids[index] = entry.getKey();
+            values[index] = entry.getValue().name();
+            index++;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<TaskEvent> events = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPDATE_STATUSES);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("varchar", values));
+            statement.setTimestamp(3, now);
+            statement.setTimestamp(4, now);
+            return statement;
+        }, (resultSet, rowNum) -> TaskEvent.updated(mapTaskDto(resultSet, "previous_"), mapTaskDto(resultSet, "")));
+
+        // The cache is updated once the transaction has committed
+        Cache cache = cacheManager.getCache(CacheConfig.TASKS);
+        for (TaskEvent event : events) {
+            cache.put(event.taskId(), event.after());
+            eventPublisher.publishEvent(event);
+        }
+        logger.info("Updated the status of {} of {} tasks", events.size(), statuses.size());
+        return events.size();
+    }
+
+    /**
+     * Columns of the tasks table, qualified with the table alias and aliased with the prefix.
+     */
+    static String columns(String table, String prefix) {
+        List<String> columns = new ArrayList<>(COLUMNS.length);
+        for (String column : COLUMNS) {
+            columns.add(table + column + " AS " + prefix + column);
+        }
+        return String.join(", ", columns);
+    }
+
+    /**
+     * Map the columns of a task with the given prefix to a TaskDto.
+     */
+    static TaskDto mapTaskDto(ResultSet resultSet, String prefix) throws SQLException {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setId(resultSet.getLong(prefix + "id"));
+        taskDto.setCreatedAt(toLocalDateTime(resultSet.getTimestamp(prefix + "created_at")));
+        taskDto.setUpdatedAt(toLocalDateTime(resultSet.getTimestamp(prefix + "updated_at")));
+        Date dueDate = resultSet.getDate(prefix + "due_date");
+        taskDto.setDueDate(dueDate == null ? null : dueDate.toLocalDate());
+        taskDto.setResolvedAt(toLocalDateTime(resultSet.getTimestamp(prefix + "resolved_at")));
+        taskDto.setTitle(resultSet.getString(prefix + "title"));
+        taskDto.setDescription(resultSet.getString(prefix + "description"));
+        String priority = resultSet.getString(prefix + "priority");
+        taskDto.setPriority(priority == null ? null : Priority.valueOf(priority));
+        String status = resultSet.getString(prefix + "status");
+        taskDto.setStatus(status == null ? null : Status.valueOf(status));
+        taskDto.setVersion(resultSet.getLong(prefix + "version"));
+        return taskDto;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,77 @@
+-- Schema as created by Hibernate before the migrations were introduced.
+-- Every statement is idempotent, so databases whose schema has been created by Hibernate are baselined at version 0 and completed by it.
+
+CREATE SEQUENCE IF NOT EXISTS task_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          bigint       NOT NULL,
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    due_date    date,
+    resolved_at timestamp(6),
+    title       varchar(255),
+    description varchar(255),
+    priority    varchar(255),
+    status      varchar(255),
+    version     bigint       DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Columns added to the tables of a database created before, where CREATE TABLE IF NOT EXISTS is skipped
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_title_id ON tasks (title, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_status_due_date ON tasks (status, due_date, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_priority_status_due_date ON tasks (priority, status, due_date);
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at ON tasks (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_status_resolved_at ON tasks (status, resolved_at);
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id          bigint       NOT NULL,
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    due_date    date,
+    resolved_at timestamp(6),
+    title       varchar(255),
+    description varchar(255),
+    priority    varchar(255),
+    status      varchar(255),
+    version     bigint       NOT NULL,
+    archived_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS task_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS task_outbox (
+    id              bigint        NOT NULL,
+    created_at      timestamp(6)  NOT NULL,
+    type            varchar(255)  NOT NULL,
+    task_id         bigint        NOT NULL,
+    payload         text          NOT NULL,
+    attempts        integer       NOT NULL,
+    next_attempt_at timestamp(6)  NOT NULL,
+    last_error      varchar(1000),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_outbox_next_attempt_at ON task_outbox (next_attempt_at, id);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key varchar(255) NOT NULL,
+    created_at      timestamp(6) NOT NULL,
+    fingerprint     varchar(64)  NOT NULL,
+    task_id         bigint       NOT NULL,
+    response        text         NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
+CREATE TABLE IF NOT EXISTS leases (
+    name          varchar(200)                NOT NULL,
+    owner         varchar(200)                NOT NULL,
+    fencing_token bigint                      NOT NULL,
+    expires_at    timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,9 @@
+-- Full-text search over task titles and descriptions, maintained by PostgreSQL on every insert and update.
+-- Titles weigh more than descriptions in the ranking. The text search configuration has to match SearchConfig.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_search_vector ON tasks USING gin (search_vector);
@@ -0,0 +1,155 @@
+package com.craftworks.taskmanager.duedate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link TimingWheel} with 2 levels of 4 slots, so level 0 covers 4 ticks, level 1 covers 16 ticks
+ * and later deadlines go to the overflow.
+ */
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(2, 2, 0);
+
+    @Test
+    void rejectsDeadlinesAtOrBeforeTheCurrentTick() {
+        assertFalse(wheel.schedule(1, 0));
+        assertFalse(wheel.schedule(1, -1));
+        wheel.advance(5);
+        assertFalse(wheel.schedule(1, 5));
+        assertFalse(wheel.schedule(1, 4));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectingADeadlineCancelsTheEarlierOne() {
+        wheel.schedule(1, 3);
+        assertFalse(wheel.schedule(1, 0));
+        assertEquals(List.of(), wheel.advance(3));
+    }
+
+    @Test
+    void returnsDeadlinesOfTheFirstLevelAtTheirTick() {
+        wheel.schedule(1, 3);
+        assertEquals(List.of(), wheel.advance(2));
+        assertEquals(List.of(1L), wheel.advance(3));
+        assertEquals(0, wheel.size());
+        assertEquals(3, wheel.currentTick());
+    }
+
+    @Test
+    void cascadesDeadlinesFromTheSecondLevel() {
+        wheel.schedule(1, 6);
+        assertEquals(List.of(), wheel.advance(4));
+        assertEquals(List.of(), wheel.advance(5));
+        assertEquals(List.of(1L), wheel.advance(6));
+    }
+
+    @Test
+    void returnsADeadlineOnTheBoundaryOfALevelWhenItIsCascaded() {
+        wheel.schedule(1, 4);
+        assertEquals(List.of(), wheel.advance(3));
+        assertEquals(List.of(1L), wheel.advance(4));
+    }
+
+    @Test
+    void returnsAllDeadlinesPassedInOneAdvance() {
+        wheel.schedule(1, 2);
+        wheel.schedule(2, 6);
+        wheel.schedule(3, 15);
+        wheel.schedule(4, 16);
+        wheel.schedule(5, 17);
+        assertEquals(Set.of(1L, 2L, 3L, 4L), new HashSet<>(wheel.advance(16)));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(5L), wheel.advance(17));
+    }
+
+    @Test
+    void redistributesTheOverflowOncePerRevolution() {
+        wheel.schedule(1, 20);
+        assertEquals(List.of(), wheel.advance(16));
+        assertEquals(List.of(), wheel.advance(19));
+        assertEquals(List.of(1L), wheel.advance(20));
+    }
+
+    @Test
+    void keepsDeadlinesSeveralRevolutionsAheadInTheOverflow() {
+        wheel.schedule(1, 100);
+        assertEquals(List.of(), wheel.advance(99));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), wheel.advance(100));
+    }
+
+    @Test
+    void returnsOverflowDeadlinesReachedAtTheRevolution() {
+        wheel.schedule(1, 16);
+        assertEquals(List.of(), wheel.advance(15));
+        assertEquals(List.of(1L), wheel.advance(16));
+    }
+
+    @Test
+    void cancelsDeadlines() {
+        wheel.schedule(1, 3);
+        wheel.schedule(2, 6);
+        wheel.schedule(3, 20);
+        assertTrue(wheel.cancel(1));
+        assertTrue(wheel.cancel(2));
+        assertTrue(wheel.cancel(3));
+        assertFalse(wheel.cancel(3));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(32));
+    }
+
+    @Test
+    void cancelsDeadlinesAfterTheyHaveBeenCascaded() {
+        wheel.schedule(1, 6);
+        wheel.schedule(2, 20);
+        wheel.advance(4);
+        assertTrue(wheel.cancel(1));
+        wheel.advance(17);
+        assertTrue(wheel.cancel(2));
+        assertEquals(List.of(), wheel.advance(32));
+    }
+
+    @Test
+    void doesNotCancelDeadlinesWhichHaveBeenReturned() {
+        wheel.schedule(1, 6);
+        assertEquals(List.of(1L), wheel.advance(6));
+        assertFalse(wheel.cancel(1));
+    }
+
+    @Test
+    void replacesTheDeadlineOfATask() {
+        wheel.schedule(1, 5);
+        assertTrue(wheel.schedule(1, 9));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(5));
+        assertEquals(List.of(1L), wheel.advance(9));
+    }
+
+    @Test
+    void startsAtTheGivenTick() {
+        TimingWheel started = new TimingWheel(2, 2, 1000);
+        assertFalse(started.schedule(1, 1000));
+        started.schedule(1, 1003);
+        started.schedule(2, 1030);
+        assertEquals(List.of(1L), started.advance(1003));
+        assertEquals(List.of(), started.advance(1029));
+        assertEquals(List.of(2L), started.advance(1030));
+    }
+
+    @Test
+    void rejectsUnsupportedSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(2, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(31, 3, 0));
+    }
+}
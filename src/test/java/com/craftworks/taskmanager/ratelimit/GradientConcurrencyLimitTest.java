@@ -0,0 +1,128 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link GradientConcurrencyLimit}, which takes the latencies of the requests as arguments and so is deterministic.
+ */
+class GradientConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void clampsTheInitialLimit() {
+        assertEquals(20, new GradientConcurrencyLimit(50, 1, 20, 2, 10).getLimit());
+        assertEquals(5, new GradientConcurrencyLimit(1, 5, 20, 2, 10).getLimit());
+    }
+
+    @Test
+    void rejectsRequestsBeyondTheLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 2, 10);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+        limit.release();
+        assertEquals(1, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileTheLatencyStaysTheSameUnderLoad() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 2, 10);
+        runAtLimit(limit, FAST, 20);
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhileMostOfTheLimitIsUnused() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 2, 10);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(FAST);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void staysAtTheMaximum() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 30, 2, 10);
+        runAtLimit(limit, FAST, 1_000);
+        assertEquals(30, limit.getLimit());
+    }
+
+    @Test
+    void shrinksWhenTheLatencyExceedsTheTolerance() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 1, 50, 2, 100);
+        runAtLimit(limit, FAST, 100);
+        assertEquals(50, limit.getLimit());
+        runAtLimit(limit, SLOW, 5);
+        assertTrue(limit.getLimit() < 50, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void doesNotShrinkWithinTheTolerance() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 1, 50, 2, 100);
+        runAtLimit(limit, FAST, 100);
+        runAtLimit(limit, FAST * 2, 20);
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void staysAtTheMinimum() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 20, 1, 1_000);
+        runAtLimit(limit, FAST, 10);
+        for (int i = 0; i < 200; i++) {
+            runAtLimit(limit, SLOW * (i + 2), 1);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void releasingWithoutLatencyKeepsTheLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 2, 10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limit.release();
+        }
+        assertEquals(10, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 0, 100, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 20, 10, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 1, 100, 0.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 1, 100, 2, 0));
+    }
+
+    /**
+     * Fill the limit with requests, then complete and replace one request after another with the given latency,
+     * so the limit is in use all the time.
+     */
+    private static void runAtLimit(GradientConcurrencyLimit limit, long rttNanos, int requests) {
+        while (limit.tryAcquire()) {
+            // Fill the limit
+        }
+        for (int i = 0; i < requests; i++) {
+            limit.release(rttNanos);
+            while (limit.tryAcquire()) {
+                // Refill the limit, which may have grown
+            }
+        }
+        while (limit.getInFlight() > 0) {
+            limit.release();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the Retry-After calculation of {@link TaskLoadSheddingFilter}.
+ */
+class TaskLoadSheddingFilterTest {
+
+    @Test
+    void retriesAfterAtLeastOneSecond() {
+        assertEquals(1, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ZERO));
+        assertEquals(1, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofNanos(1)));
+        assertEquals(1, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofMillis(999)));
+        assertEquals(1, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void roundsTheWaitUpToWholeSeconds() {
+        assertEquals(2, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofSeconds(1).plusNanos(1)));
+        assertEquals(2, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofMillis(1_500)));
+        assertEquals(60, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofSeconds(60)));
+    }
+
+    @Test
+    void retriesAfterTheWaitOfAnEmptyBucket() {
+        TokenBucket bucket = new TokenBucket(1, 0.5, () -> 0);
+        bucket.tryConsume();
+        assertEquals(2, TaskLoadSheddingFilter.retryAfterSeconds(Duration.ofNanos(bucket.tryConsume())));
+    }
+}
@@ -0,0 +1,83 @@
+package com.craftworks.taskmanager.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link TokenBucket} on a clock which only advances when the test advances it.
+ */
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void passesABurstUpToTheCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, now::get);
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertWait(TimeUnit.SECONDS.toNanos(1), bucket.tryConsume());
+    }
+
+    @Test
+    void refillsAtTheRate() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+        assertEquals(0, bucket.tryConsume());
+        assertWait(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryConsume());
+        advance(TimeUnit.MILLISECONDS.toNanos(200));
+        assertWait(TimeUnit.MILLISECONDS.toNanos(300), bucket.tryConsume());
+        advance(TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void waitsForAWholeTokenAtRatesBelowOnePerSecond() {
+        TokenBucket bucket = new TokenBucket(1, 0.25, now::get);
+        assertEquals(0, bucket.tryConsume());
+        assertWait(TimeUnit.SECONDS.toNanos(4), bucket.tryConsume());
+        advance(TimeUnit.SECONDS.toNanos(3));
+        assertWait(TimeUnit.SECONDS.toNanos(1), bucket.tryConsume());
+    }
+
+    @Test
+    void doesNotRefillBeyondTheCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, now::get);
+        advance(TimeUnit.HOURS.toNanos(1));
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertWait(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryConsume());
+    }
+
+    @Test
+    void rejectedRequestsDoNotTakeTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, now::get);
+        assertEquals(0, bucket.tryConsume());
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume();
+        }
+        advance(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, now::get));
+    }
+
+    private void advance(long nanos) {
+        now.addAndGet(nanos);
+    }
+
+    /**
+     * The wait is computed in floating point, so it may be off by a nanosecond.
+     */
+    private static void assertWait(long expectedNanos, long actualNanos) {
+        assertEquals(expectedNanos, actualNanos, 1);
+    }
+}